@@ -0,0 +1,72 @@
+-- Benchmark del filtro por nombre: B-tree LOWER(nombre) vs GIN trigram.
+--
+-- Uso (sobre una base descartable, NO sobre tienda_db):
+--   createdb bench_db
+--   psql -d bench_db -v filas=3000000 -f docs/benchmarks/nombre-trgm.sql
+--
+-- Compara el tiempo de la consulta del filtro nombre (ProductoSpecifications.nombreContiene)
+-- (pagina de 10 mas su COUNT) antes y despues de crear el indice trigram.
+
+\set ON_ERROR_STOP on
+\if :{?filas}
+\else
+\set filas 3000000
+\endif
+\timing on
+
+DROP TABLE IF EXISTS productos;
+CREATE TABLE productos (
+    id BIGSERIAL PRIMARY KEY,
+    sku VARCHAR(100) NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    descripcion TEXT,
+    precio NUMERIC(12, 2) NOT NULL,
+    stock INTEGER NOT NULL,
+    categoria VARCHAR(120),
+    activo BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_productos_sku UNIQUE (sku)
+);
+
+INSERT INTO productos (sku, nombre, descripcion, precio, stock, categoria, activo, created_at, updated_at)
+SELECT 'SKU-' || g,
+       (ARRAY['Teclado', 'Mouse', 'Monitor', 'Silla', 'Webcam', 'Laptop', 'Audifonos', 'Router'])[1 + g % 8]
+           || ' ' || md5(g::text),
+       'Descripcion ' || g,
+       (random() * 5000)::NUMERIC(12, 2),
+       (random() * 100)::INTEGER,
+       (ARRAY['Perifericos', 'Pantallas', 'Muebles', 'Audio'])[1 + g % 4],
+       g % 10 <> 0,
+       now() - (g || ' seconds')::INTERVAL,
+       now() - (g || ' seconds')::INTERVAL
+FROM generate_series(1, :filas) AS g;
+
+CREATE INDEX idx_productos_nombre_lower ON productos (LOWER(nombre));
+ANALYZE productos;
+
+PREPARE pagina(TEXT) AS
+    SELECT * FROM productos WHERE LOWER(nombre) LIKE $1 ESCAPE '\' ORDER BY created_at DESC LIMIT 10;
+PREPARE conteo(TEXT) AS
+    SELECT count(*) FROM productos WHERE LOWER(nombre) LIKE $1 ESCAPE '\';
+
+\echo '=== Antes: solo B-tree LOWER(nombre) ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE pagina('%a1b2%');
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE conteo('%a1b2%');
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE conteo('%monitor 9f%');
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_productos_nombre_trgm ON productos USING gin (LOWER(nombre) gin_trgm_ops);
+DROP INDEX idx_productos_nombre_lower;
+ANALYZE productos;
+DEALLOCATE ALL;
+
+PREPARE pagina(TEXT) AS
+    SELECT * FROM productos WHERE LOWER(nombre) LIKE $1 ESCAPE '\' ORDER BY created_at DESC LIMIT 10;
+PREPARE conteo(TEXT) AS
+    SELECT count(*) FROM productos WHERE LOWER(nombre) LIKE $1 ESCAPE '\';
+
+\echo '=== Despues: GIN trigram LOWER(nombre) ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE pagina('%a1b2%');
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE conteo('%a1b2%');
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE conteo('%monitor 9f%');
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Carga bloqueante contra la API para comparar el modo por defecto con el perfil virtual.
+#
+# Uso (con la app levantada en cada modo, sobre una base con datos):
+#   SPRING_PROFILES_ACTIVE=docker         mvn spring-boot:run   # modo por defecto
+#   ./docs/benchmarks/virtual-threads.sh default
+#   SPRING_PROFILES_ACTIVE=docker,virtual mvn spring-boot:run   # hilos virtuales + limite JDBC
+#   ./docs/benchmarks/virtual-threads.sh virtual
+#
+# Requiere hey (https://github.com/rakyll/hey). Cada escenario agrega una linea CSV a
+# virtual-threads.csv con: modo,escenario,concurrencia,rps,p50_ms,p99_ms,errores
+# y al final muestra el estado del limite JDBC (cola y espera) si esta activo.
+
+set -euo pipefail
+
+MODO="${1:?indicar el modo: default o virtual}"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+DURACION="${DURACION:-30s}"
+SALIDA="${SALIDA:-virtual-threads.csv}"
+
+# Escenarios bloqueantes: listado con COUNT exacto y paginas profundas por offset.
+ESCENARIOS=(
+  "listado-count|/api/v1/productos?size=50&totalMode=exact"
+  "offset-profundo|/api/v1/productos?page=2000&size=50&totalMode=none"
+)
+
+[ -f "$SALIDA" ] || echo "modo,escenario,concurrencia,rps,p50_ms,p99_ms,errores" > "$SALIDA"
+
+for concurrencia in 50 200 1000; do
+  for escenario in "${ESCENARIOS[@]}"; do
+    nombre="${escenario%%|*}"
+    ruta="${escenario#*|}"
+    reporte="$(hey -z "$DURACION" -c "$concurrencia" "$BASE_URL$ruta")"
+    rps="$(awk '/Requests\/sec/ {print $2}' <<< "$reporte")"
+    p50="$(awk '/50% in/ {printf "%.1f", $3 * 1000}' <<< "$reporte")"
+    p99="$(awk '/99% in/ {printf "%.1f", $3 * 1000}' <<< "$reporte")"
+    errores="$(awk '/\[[45][0-9][0-9]\]/ {sum += $2} END {print sum + 0}' <<< "$reporte")"
+    echo "$MODO,$nombre,$concurrencia,$rps,$p50,$p99,$errores" | tee -a "$SALIDA"
+  done
+done
+
+curl -s "$BASE_URL/api/v1/concurrencia/jdbc"
+echo
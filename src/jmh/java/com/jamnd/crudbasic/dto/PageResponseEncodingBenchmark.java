@@ -0,0 +1,86 @@
+package com.jamnd.crudbasic.dto;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jamnd.crudbasic.mapper.ProductoProtobuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el costo de codificar {@code PageResponse<ProductoResponse>} en JSON, CBOR, Smile y Protobuf.
+ * Al terminar cada combinacion imprime el tamano en bytes de la pagina codificada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageResponseEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private PageResponse<ProductoResponse> page;
+
+    @Setup
+    public void setUp() {
+        writer = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build().writer();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build().writer();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build().writer();
+            default -> null;
+        };
+        LocalDateTime timestamp = LocalDateTime.of(2026, 2, 21, 12, 0);
+        List<ProductoResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new ProductoResponse(
+                (long) i,
+                "SKU-" + i,
+                "Producto " + i,
+                "Descripcion del producto " + i + " para pruebas de serializacion",
+                new BigDecimal("129.90"),
+                i % 50,
+                "Categoria " + (i % 10),
+                true,
+                timestamp,
+                timestamp,
+                0L
+            ));
+        }
+        page = new PageResponse<>(content, 0, pageSize, 100_000, 100_000 / pageSize, true, null);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer == null ? ProductoProtobuf.encode(page) : writer.writeValueAsBytes(page);
+    }
+
+    @TearDown
+    public void reportSize() throws IOException {
+        System.out.println("bytes format=" + format + " pageSize=" + pageSize + ": " + encode().length);
+    }
+}
@@ -0,0 +1,69 @@
+package com.jamnd.crudbasic.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la serializacion JSON de {@code PageResponse<ProductoResponse>} con el ObjectMapper
+ * configurado como en la aplicacion, para tamanos de pagina habituales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private PageResponse<ProductoResponse> page;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        LocalDateTime timestamp = LocalDateTime.of(2026, 2, 21, 12, 0);
+        List<ProductoResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new ProductoResponse(
+                (long) i,
+                "SKU-" + i,
+                "Producto " + i,
+                "Descripcion del producto " + i + " para pruebas de serializacion",
+                new BigDecimal("129.90"),
+                i % 50,
+                "Categoria " + (i % 10),
+                true,
+                timestamp,
+                timestamp,
+                0L
+            ));
+        }
+        page = new PageResponse<>(content, 0, pageSize, 100_000, 100_000 / pageSize, true, null);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,81 @@
+package com.jamnd.crudbasic.mapper;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara serializar una pagina de productos en JSON con y sin {@link ProductoJsonCache}.
+ * Con cache todos los productos ya estan serializados, como en una pagina popular.
+ * Con {@code -prof gc} muestra tambien los bytes asignados por operacion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductoJsonCacheBenchmark {
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private PageResponse<ProductoResponse> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (cache) {
+            builder.modulesToInstall(new ProductoJsonCache(DataSize.ofMegabytes(32)).module());
+        }
+        writer = builder.build().writer();
+        LocalDateTime timestamp = LocalDateTime.of(2026, 2, 21, 12, 0, 0, 123_456_000);
+        List<ProductoResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new ProductoResponse(
+                (long) i,
+                "SKU-" + i,
+                "Producto " + i,
+                "Descripcion del producto " + i + " para pruebas de serializacion",
+                new BigDecimal("129.90"),
+                i % 50,
+                "Categoria " + (i % 10),
+                true,
+                timestamp,
+                timestamp,
+                3L
+            ));
+        }
+        page = new PageResponse<>(content, 0, pageSize, 100_000, 100_000 / pageSize, true, null);
+        writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+}
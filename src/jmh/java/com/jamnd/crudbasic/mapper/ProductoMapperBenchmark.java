@@ -0,0 +1,55 @@
+package com.jamnd.crudbasic.mapper;
+
+import com.jamnd.crudbasic.dto.ProductoRequest;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.entity.Producto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la conversion entre DTOs y entidad de {@link ProductoMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductoMapperBenchmark {
+
+    private final ProductoMapper mapper = new ProductoMapper();
+    private ProductoRequest request;
+    private Producto entity;
+
+    @Setup
+    public void setUp() {
+        request = new ProductoRequest(
+            "SKU-1001", "Teclado mecanico", "Teclado para oficina", new BigDecimal("129.90"), 10, "Perifericos", true);
+        entity = mapper.toEntity(request);
+        entity.setId(1L);
+        entity.setCreatedAt(LocalDateTime.of(2026, 2, 21, 12, 0));
+        entity.setUpdatedAt(LocalDateTime.of(2026, 2, 21, 12, 0));
+    }
+
+    @Benchmark
+    public Producto toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public ProductoResponse toResponse() {
+        return mapper.toResponse(entity);
+    }
+}
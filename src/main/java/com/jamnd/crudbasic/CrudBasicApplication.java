@@ -2,11 +2,13 @@ package com.jamnd.crudbasic;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * Punto de entrada de la aplicacion.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class CrudBasicApplication {
 
     /**
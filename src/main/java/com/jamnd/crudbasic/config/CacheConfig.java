@@ -0,0 +1,46 @@
+package com.jamnd.crudbasic.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuracion de la cache local de productos.
+ * <p>
+ * Solo se activa con {@code app.productos.cache.enabled=true}; sin ella las
+ * anotaciones de cache del servicio no tienen efecto.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "app.productos.cache", name = "enabled", havingValue = "true")
+public class CacheConfig {
+
+    /**
+     * Nombre de la cache de productos por id.
+     */
+    public static final String PRODUCTOS = "productos";
+
+    /**
+     * Crea la cache Caffeine acotada por tamano y TTL.
+     * Las invalidaciones se aplican despues del commit de la transaccion activa.
+     *
+     * @param properties configuracion de la cache
+     * @return administrador de cache
+     */
+    @Bean
+    public CacheManager cacheManager(ProductoCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTOS);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(properties.maximumSize())
+            .expireAfterWrite(properties.ttl())
+            .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,12 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita la purga programada de bajas del feed de cambios.
+ */
+@Configuration
+@EnableScheduling
+public class CambiosConfig {
+}
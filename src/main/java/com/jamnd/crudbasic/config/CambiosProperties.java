@@ -0,0 +1,22 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuracion del feed de cambios de productos.
+ *
+ * @param margen antiguedad minima de un cambio para entregarlo; debe superar la duracion de la
+ *               transaccion de escritura mas larga mas el desfase de reloj entre instancias
+ * @param retencionBajas tiempo que se guardan las bajas; un token mas antiguo exige resincronizar
+ * @param purgaIntervalo cada cuanto se eliminan las bajas vencidas
+ */
+@ConfigurationProperties(prefix = "app.productos.cambios")
+public record CambiosProperties(
+    @DefaultValue("5s") Duration margen,
+    @DefaultValue("30d") Duration retencionBajas,
+    @DefaultValue("1h") Duration purgaIntervalo
+) {
+}
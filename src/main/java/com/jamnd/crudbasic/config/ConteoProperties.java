@@ -0,0 +1,23 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuracion del conteo estimado de productos y de los conteos de facets.
+ *
+ * @param estadisticasPostgres usa pg_class.reltuples para el total sin filtro
+ * @param ttl tiempo de vida de los conteos cacheados por filtro
+ * @param maxFiltros cantidad maxima de filtros con conteo cacheado
+ * @param facetsTtl tiempo maximo que se ajustan en memoria los conteos de facets antes de recargarlos
+ */
+@ConfigurationProperties(prefix = "app.productos.conteo")
+public record ConteoProperties(
+    @DefaultValue("false") boolean estadisticasPostgres,
+    @DefaultValue("60s") Duration ttl,
+    @DefaultValue("1000") int maxFiltros,
+    @DefaultValue("5m") Duration facetsTtl
+) {
+}
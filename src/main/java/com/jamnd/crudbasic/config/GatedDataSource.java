@@ -0,0 +1,69 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource que toma un permiso de {@link JdbcConcurrencyGate} por cada conexion abierta
+ * y lo libera al cerrarla.
+ */
+class GatedDataSource extends DelegatingDataSource {
+
+    private final JdbcConcurrencyGate gate;
+
+    GatedDataSource(DataSource target, JdbcConcurrencyGate gate) {
+        super(target);
+        this.gate = gate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        gate.acquire();
+        try {
+            return gated(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            gate.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        gate.acquire();
+        try {
+            return gated(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            gate.release();
+            throw ex;
+        }
+    }
+
+    private Connection gated(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                    try {
+                        target.close();
+                    } finally {
+                        gate.release();
+                    }
+                    return null;
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuracion de la importacion masiva de productos.
+ *
+ * @param chunkSize filas confirmadas por transaccion
+ * @param maxErrores cantidad maxima de filas rechazadas detalladas en la respuesta
+ */
+@ConfigurationProperties(prefix = "app.productos.importacion")
+public record ImportacionProperties(
+    @DefaultValue("1000") int chunkSize,
+    @DefaultValue("100") int maxErrores
+) {
+}
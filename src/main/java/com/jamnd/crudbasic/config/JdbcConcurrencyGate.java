@@ -0,0 +1,112 @@
+package com.jamnd.crudbasic.config;
+
+import com.jamnd.crudbasic.dto.JdbcGateStatsResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita cuantas conexiones JDBC se usan a la vez y mide el tiempo de espera en cola.
+ * <p>
+ * Con hilos virtuales pueden existir miles de solicitudes simultaneas; el semaforo justo
+ * las ordena antes de llegar a Hikari y rechaza las que esperan mas de lo configurado.
+ * Publica las mismas estadisticas como metricas {@code jdbc.gate.*}; cada espera se registra en el
+ * timer {@code jdbc.gate.wait}, con histograma para calcular percentiles de la cola.
+ */
+public class JdbcConcurrencyGate implements MeterBinder {
+
+    private final Semaphore semaphore;
+    private final int permits;
+    private final long acquireTimeoutNanos;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile Timer waitTimer;
+
+    public JdbcConcurrencyGate(JdbcGateProperties properties) {
+        this.permits = properties.permits();
+        this.semaphore = new Semaphore(properties.permits(), true);
+        this.acquireTimeoutNanos = properties.acquireTimeout().toNanos();
+    }
+
+    /**
+     * Espera un permiso para usar una conexion.
+     *
+     * @throws SQLTransientConnectionException si se supera el tiempo de espera o se interrumpe el hilo
+     */
+    public void acquire() throws SQLTransientConnectionException {
+        long start = System.nanoTime();
+        boolean granted;
+        try {
+            granted = semaphore.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new SQLTransientConnectionException("Espera de conexion interrumpida", ex);
+        }
+        long waited = System.nanoTime() - start;
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(waited, TimeUnit.NANOSECONDS);
+        }
+        if (!granted) {
+            rejected.increment();
+            throw new SQLTransientConnectionException(
+                "No hay conexiones disponibles tras " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms");
+        }
+        acquired.increment();
+    }
+
+    /**
+     * Devuelve el permiso tomado con {@link #acquire()}.
+     */
+    public void release() {
+        semaphore.release();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jdbc.gate.available", semaphore, Semaphore::availablePermits)
+            .description("Permisos libres del limite JDBC")
+            .register(registry);
+        Gauge.builder("jdbc.gate.waiting", semaphore, Semaphore::getQueueLength)
+            .description("Hilos esperando un permiso JDBC")
+            .register(registry);
+        FunctionCounter.builder("jdbc.gate.acquired", acquired, LongAdder::sum)
+            .description("Permisos JDBC entregados")
+            .register(registry);
+        FunctionCounter.builder("jdbc.gate.rejected", rejected, LongAdder::sum)
+            .description("Solicitudes rechazadas por tiempo de espera")
+            .register(registry);
+        // Se crea al enlazar el registro: las esperas anteriores (arranque) solo cuentan en los contadores.
+        waitTimer = Timer.builder("jdbc.gate.wait")
+            .description("Espera en cola por un permiso JDBC, entregado o rechazado")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * Resume el estado actual del limite. La espera maxima es la del timer, que se renueva cada pocos minutos.
+     *
+     * @return estadisticas de uso y espera
+     */
+    public JdbcGateStatsResponse stats() {
+        Timer timer = waitTimer;
+        return new JdbcGateStatsResponse(
+            true,
+            permits,
+            semaphore.availablePermits(),
+            semaphore.getQueueLength(),
+            acquired.sum(),
+            rejected.sum(),
+            timer == null ? 0 : (long) timer.mean(TimeUnit.MICROSECONDS),
+            timer == null ? 0 : (long) timer.max(TimeUnit.MICROSECONDS)
+        );
+    }
+}
@@ -0,0 +1,50 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuracion del limite de conexiones JDBC concurrentes.
+ * <p>
+ * Solo se activa con {@code app.concurrencia.jdbc.enabled=true} (perfil {@code virtual});
+ * envuelve el DataSource para que todo acceso JDBC pase por {@link JdbcConcurrencyGate}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.concurrencia.jdbc", name = "enabled", havingValue = "true")
+public class JdbcGateConfig {
+
+    /**
+     * Crea el limite de conexiones.
+     *
+     * @param properties configuracion del limite
+     * @return limite compartido
+     */
+    @Bean
+    public JdbcConcurrencyGate jdbcConcurrencyGate(JdbcGateProperties properties) {
+        return new JdbcConcurrencyGate(properties);
+    }
+
+    /**
+     * Envuelve cada DataSource con el limite de conexiones.
+     *
+     * @param gate limite compartido, resuelto de forma diferida
+     * @return post procesador de DataSource
+     */
+    @Bean
+    public static BeanPostProcessor gatedDataSourcePostProcessor(ObjectProvider<JdbcConcurrencyGate> gate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof GatedDataSource)) {
+                    return new GatedDataSource(dataSource, gate.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
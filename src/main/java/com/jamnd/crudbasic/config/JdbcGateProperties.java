@@ -0,0 +1,21 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuracion del limite de conexiones JDBC concurrentes.
+ *
+ * @param enabled habilita el limite
+ * @param permits conexiones simultaneas permitidas, igual al tamano del pool
+ * @param acquireTimeout espera maxima por un permiso antes de rechazar
+ */
+@ConfigurationProperties(prefix = "app.concurrencia.jdbc")
+public record JdbcGateProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("10") int permits,
+    @DefaultValue("5s") Duration acquireTimeout
+) {
+}
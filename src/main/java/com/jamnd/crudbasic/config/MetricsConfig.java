@@ -0,0 +1,37 @@
+package com.jamnd.crudbasic.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuracion de metricas propias de la aplicacion.
+ * <p>
+ * HTTP, Hikari, Hibernate y cache las publica Actuator; aqui solo se habilita {@code @Timed}
+ * para medir los metodos del servicio de productos.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Nombre del timer de los metodos de {@code ProductoService}.
+     */
+    public static final String SERVICE_TIMER = "productos.service";
+
+    /**
+     * Nombre del contador de errores por rama de {@code GlobalExceptionHandler}.
+     */
+    public static final String API_ERRORS = "api.errors";
+
+    /**
+     * Aspecto que registra los metodos anotados con {@code @Timed}.
+     *
+     * @param registry registro de metricas
+     * @return aspecto de timers
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuracion de la cache local de productos por id.
+ *
+ * @param enabled habilita la cache
+ * @param maximumSize cantidad maxima de productos en cache
+ * @param ttl tiempo de vida de cada entrada
+ */
+@ConfigurationProperties(prefix = "app.productos.cache")
+public record ProductoCacheProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("10000") long maximumSize,
+    @DefaultValue("5m") Duration ttl
+) {
+}
@@ -0,0 +1,42 @@
+package com.jamnd.crudbasic.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.jamnd.crudbasic.mapper.ProductoJsonCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuracion de la cache de productos ya serializados en JSON.
+ * <p>
+ * Se activa por defecto; con {@code app.productos.json-cache.enabled=false} cada respuesta
+ * se serializa completa.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.productos.json-cache", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+public class ProductoJsonCacheConfig {
+
+    /**
+     * Crea la cache de fragmentos acotada por memoria.
+     *
+     * @param properties configuracion de la cache
+     * @return cache de fragmentos
+     */
+    @Bean
+    public ProductoJsonCache productoJsonCache(ProductoJsonCacheProperties properties) {
+        return new ProductoJsonCache(properties.tamanoMaximo());
+    }
+
+    /**
+     * Modulo Jackson que escribe los productos desde la cache. Spring Boot lo agrega al
+     * ObjectMapper de la aplicacion y a los de CBOR y Smile, que siguen serializando normal.
+     *
+     * @param cache cache de fragmentos
+     * @return modulo Jackson
+     */
+    @Bean
+    public Module productoJsonModule(ProductoJsonCache cache) {
+        return cache.module();
+    }
+}
@@ -0,0 +1,18 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuracion de la cache de productos ya serializados en JSON.
+ *
+ * @param enabled habilita la cache
+ * @param tamanoMaximo memoria maxima ocupada por los fragmentos
+ */
+@ConfigurationProperties(prefix = "app.productos.json-cache")
+public record ProductoJsonCacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("32MB") DataSize tamanoMaximo
+) {
+}
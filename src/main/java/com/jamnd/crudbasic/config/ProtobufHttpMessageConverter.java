@@ -0,0 +1,46 @@
+package com.jamnd.crudbasic.config;
+
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.mapper.ProductoProtobuf;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Escribe productos y paginas en Protobuf segun {@code proto/productos.proto}. Solo salida.
+ */
+final class ProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    ProtobufHttpMessageConverter() {
+        super(MediaType.parseMediaType(ProductoProtobuf.MEDIA_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductoResponse.class == clazz || PageResponse.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf solo se admite como respuesta", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = body instanceof ProductoResponse producto
+            ? ProductoProtobuf.encode(producto)
+            : ProductoProtobuf.encode((PageResponse<?>) body);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
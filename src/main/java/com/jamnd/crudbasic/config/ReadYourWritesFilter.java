@@ -0,0 +1,79 @@
+package com.jamnd.crudbasic.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Mantiene en el primario las lecturas de un cliente durante un tiempo despues de su escritura.
+ * <p>
+ * Cada solicitud que modifica datos deja la cookie {@value #COOKIE} con el instante hasta el que
+ * el cliente debe leer del primario. Mientras no venza, sus lecturas no pasan por las replicas y
+ * ve sus propios cambios aunque la replicacion tenga retraso. La cookie no depende de la
+ * instancia, asi que funciona detras de un balanceador.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Cookie con el instante, en milisegundos epoch, hasta el que se lee del primario.
+     */
+    public static final String COOKIE = "rw_primary";
+
+    private static final Set<String> LECTURAS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        if (!LECTURAS.contains(request.getMethod())) {
+            // Se agrega antes de procesar: despues la respuesta puede estar confirmada.
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!escrituraReciente(request, now)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ReplicaRouter.PrimaryScope ignored = ReplicaRouter.usePrimary()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static boolean escrituraReciente(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
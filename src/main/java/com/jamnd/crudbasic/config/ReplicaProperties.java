@@ -0,0 +1,39 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuracion de las replicas de lectura.
+ *
+ * @param enabled habilita el ruteo de transacciones de solo lectura a las replicas
+ * @param nodos replicas disponibles; usuario y clave vacios toman los de {@code spring.datasource}
+ * @param healthInterval cada cuanto se verifica que cada replica responda
+ * @param connectionTimeout espera maxima por una conexion de replica antes de caer al primario
+ * @param readYourWrites envia al primario las lecturas de un cliente justo despues de su escritura
+ * @param readYourWritesWindow tiempo que un cliente lee del primario tras escribir
+ */
+@ConfigurationProperties(prefix = "app.replicas")
+public record ReplicaProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue List<Nodo> nodos,
+    @DefaultValue("5s") Duration healthInterval,
+    @DefaultValue("1s") Duration connectionTimeout,
+    @DefaultValue("true") boolean readYourWrites,
+    @DefaultValue("5s") Duration readYourWritesWindow
+) {
+
+    /**
+     * Conexion a una replica.
+     *
+     * @param nombre nombre de la replica en metricas y logs
+     * @param url URL JDBC
+     * @param username usuario, vacio para usar el del primario
+     * @param password clave, vacia para usar la del primario
+     */
+    public record Nodo(String nombre, String url, String username, String password) {
+    }
+}
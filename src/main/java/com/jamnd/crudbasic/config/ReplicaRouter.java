@@ -0,0 +1,207 @@
+package com.jamnd.crudbasic.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Elige la base para cada conexion de solo lectura: una replica sana en round robin o,
+ * si ninguna responde, el primario.
+ * <p>
+ * Una replica que falla al entregar una conexion queda fuera hasta que la verificacion periodica
+ * la vuelva a encontrar sana. Mientras este abierto un {@link #usePrimary()} las lecturas del hilo van
+ * al primario, para que un cliente vea sus propias escrituras aunque la replica tenga retraso.
+ * Publica las metricas {@code db.replica.*}.
+ */
+public class ReplicaRouter implements MeterBinder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final DataSource readDataSource = new ReadDataSource();
+
+    /**
+     * Crea los pools de las replicas con la misma configuracion del primario, verifica cada una
+     * y deja fuera las que no respondan.
+     *
+     * @param primary pool del primario, que el router cierra al terminar
+     * @param properties configuracion de las replicas
+     */
+    public ReplicaRouter(HikariDataSource primary, ReplicaProperties properties) {
+        this.primary = primary;
+        for (int i = 0; i < properties.nodos().size(); i++) {
+            ReplicaProperties.Nodo nodo = properties.nodos().get(i);
+            String nombre = StringUtils.hasText(nodo.nombre()) ? nodo.nombre() : "replica-" + (i + 1);
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setPoolName(nombre);
+            config.setJdbcUrl(nodo.url());
+            if (StringUtils.hasText(nodo.username())) {
+                config.setUsername(nodo.username());
+                config.setPassword(nodo.password());
+            }
+            config.setConnectionTimeout(properties.connectionTimeout().toMillis());
+            // Una replica caida al arrancar no impide iniciar: queda fuera hasta que responda.
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(nombre, new HikariDataSource(config)));
+        }
+        checkHealth();
+    }
+
+    /**
+     * Pool del primario, destino de escrituras y respaldo de lecturas.
+     *
+     * @return DataSource del primario
+     */
+    public DataSource primary() {
+        return primary;
+    }
+
+    /**
+     * DataSource para conexiones de solo lectura.
+     *
+     * @return DataSource que rutea a replicas o al primario
+     */
+    public DataSource readDataSource() {
+        return readDataSource;
+    }
+
+    /**
+     * Dirige al primario las lecturas del hilo actual hasta cerrar el alcance devuelto.
+     *
+     * @return alcance a cerrar con try-with-resources
+     */
+    public static PrimaryScope usePrimary() {
+        boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(true);
+        return () -> FORCE_PRIMARY.set(previous);
+    }
+
+    /**
+     * Verifica cada replica y actualiza su estado.
+     */
+    @Scheduled(fixedDelayString = "${app.replicas.health-interval:5s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (SQLException | RuntimeException ex) {
+                healthy = false;
+            }
+            if (healthy != replica.up) {
+                log.info("Replica {} {}", replica.nombre, healthy ? "disponible" : "fuera de servicio");
+            }
+            replica.up = healthy;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.up", replica, r -> r.up ? 1 : 0)
+                .description("1 si la replica recibe lecturas")
+                .tag("replica", replica.nombre)
+                .register(registry);
+        }
+        FunctionCounter.builder("db.replica.reads", replicaReads, LongAdder::sum)
+            .description("Conexiones de solo lectura por destino")
+            .tag("target", "replica")
+            .register(registry);
+        FunctionCounter.builder("db.replica.reads", primaryReads, LongAdder::sum)
+            .description("Conexiones de solo lectura por destino")
+            .tag("target", "primary")
+            .register(registry);
+        FunctionCounter.builder("db.replica.fallbacks", fallbacks, LongAdder::sum)
+            .description("Lecturas enviadas al primario porque ninguna replica respondio")
+            .register(registry);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private Connection readConnection() throws SQLException {
+        if (!FORCE_PRIMARY.get()) {
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (!replica.up) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException ex) {
+                    replica.up = false;
+                    log.warn("Replica {} fuera de servicio: {}", replica.nombre, ex.getMessage());
+                }
+            }
+            if (!replicas.isEmpty()) {
+                fallbacks.increment();
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Alcance en el que las lecturas del hilo van al primario.
+     */
+    @FunctionalInterface
+    public interface PrimaryScope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static final class Replica {
+
+        private final String nombre;
+        private final HikariDataSource dataSource;
+        private volatile boolean up = true;
+
+        private Replica(String nombre, HikariDataSource dataSource) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final class ReadDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return readConnection();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.jamnd.crudbasic.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuracion del ruteo de lecturas a replicas.
+ * <p>
+ * Solo se activa con {@code app.replicas.enabled=true}. Reemplaza el DataSource de Spring Boot
+ * por un {@link LazyConnectionDataSourceProxy}: la conexion real se pide en la primera sentencia,
+ * cuando ya se sabe si la transaccion es {@code readOnly}, y las de solo lectura salen de
+ * {@link ReplicaRouter}. Las escrituras, Flyway y todo acceso fuera de una transaccion de solo
+ * lectura van al primario.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Crea el pool del primario desde {@code spring.datasource} y los pools de las replicas.
+     * <p>
+     * Los pools no son beans, asi que Actuator no les registra metricas: el primario recibe el
+     * registro de Micrometer y las replicas lo heredan al copiar su configuracion, cada una con su
+     * nombre en el tag {@code pool} de {@code hikaricp.*}.
+     *
+     * @param dataSourceProperties conexion del primario
+     * @param properties configuracion de las replicas
+     * @param environment entorno, para aplicar {@code spring.datasource.hikari}
+     * @param meterRegistry registro de metricas, si esta disponible
+     * @return router de lecturas
+     */
+    @Bean
+    public ReplicaRouter replicaRouter(
+        DataSourceProperties dataSourceProperties,
+        ReplicaProperties properties,
+        Environment environment,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        meterRegistry.ifAvailable(registry ->
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return new ReplicaRouter(primary, properties);
+    }
+
+    /**
+     * DataSource de la aplicacion, que separa lecturas y escrituras.
+     *
+     * @param router router de lecturas
+     * @return DataSource principal
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter router) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(router.primary());
+        dataSource.setReadOnlyDataSource(router.readDataSource());
+        return dataSource;
+    }
+
+    /**
+     * Crea el filtro que mantiene en el primario las lecturas tras una escritura.
+     *
+     * @param properties configuracion de las replicas
+     * @return filtro de lectura de escrituras propias
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.replicas", name = "read-your-writes", havingValue = "true",
+        matchIfMissing = true)
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow());
+    }
+}
@@ -0,0 +1,52 @@
+package com.jamnd.crudbasic.config;
+
+/**
+ * Acumula las sentencias SQL ejecutadas y su tiempo JDBC en el hilo de la solicitud actual.
+ * <p>
+ * {@link SqlStatsFilter} abre y cierra el conteo; {@link CountingDataSource} registra cada
+ * ejecucion. Fuera de una solicitud no se cuenta nada.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Sentencias y tiempo JDBC acumulados.
+     *
+     * @param statements sentencias ejecutadas; un batch JDBC cuenta como una
+     * @param nanos tiempo total dentro del driver en nanosegundos
+     */
+    public record Snapshot(long statements, long nanos) {
+    }
+
+    static void start() {
+        CURRENT.set(new long[2]);
+    }
+
+    static void record(long nanos) {
+        long[] counts = CURRENT.get();
+        if (counts != null) {
+            counts[0]++;
+            counts[1] += nanos;
+        }
+    }
+
+    /**
+     * Devuelve lo acumulado hasta ahora en la solicitud actual.
+     *
+     * @return conteo actual, en cero fuera de una solicitud
+     */
+    public static Snapshot current() {
+        long[] counts = CURRENT.get();
+        return counts == null ? new Snapshot(0, 0) : new Snapshot(counts[0], counts[1]);
+    }
+
+    static Snapshot stop() {
+        Snapshot snapshot = current();
+        CURRENT.remove();
+        return snapshot;
+    }
+}
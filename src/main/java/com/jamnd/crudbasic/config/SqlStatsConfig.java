@@ -0,0 +1,50 @@
+package com.jamnd.crudbasic.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuracion del conteo de sentencias SQL por solicitud HTTP.
+ * <p>
+ * Activa por defecto; se desactiva con {@code app.sql-stats.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsConfig {
+
+    /**
+     * Crea el filtro que abre y cierra el conteo de cada solicitud.
+     *
+     * @param properties configuracion del conteo
+     * @param meterRegistry registro de metricas, si esta disponible
+     * @return filtro de conteo
+     */
+    @Bean
+    public SqlStatsFilter sqlStatsFilter(SqlStatsProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SqlStatsFilter(properties, meterRegistry);
+    }
+
+    /**
+     * Envuelve cada DataSource para medir sus sentencias.
+     *
+     * @return post procesador de DataSource
+     */
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                    return new CountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package com.jamnd.crudbasic.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Cuenta las sentencias SQL y el tiempo JDBC de cada solicitud HTTP.
+ * <p>
+ * Publica los valores como metricas por {@code uri} y {@code method} y, si
+ * {@code app.sql-stats.headers=true}, como cabeceras {@value #STATEMENTS_HEADER} y
+ * {@value #TIME_HEADER}. Las cabeceras se escriben justo antes del primer byte del cuerpo,
+ * por lo que en respuestas en streaming solo incluyen las sentencias previas al cuerpo.
+ */
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    /**
+     * Cabecera con la cantidad de sentencias SQL ejecutadas.
+     */
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+
+    /**
+     * Cabecera con el tiempo JDBC total en microsegundos.
+     */
+    public static final String TIME_HEADER = "X-Sql-Time-Micros";
+
+    private final SqlStatsProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SqlStatsFilter(SqlStatsProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        SqlStatementCounter.start();
+        HeaderWritingResponse wrapper = properties.headers() ? new HeaderWritingResponse(response) : null;
+        SqlStatementCounter.Snapshot snapshot;
+        try {
+            chain.doFilter(request, wrapper == null ? response : wrapper);
+        } finally {
+            snapshot = SqlStatementCounter.stop();
+        }
+        if (wrapper != null) {
+            // Respuestas sin cuerpo (204, 304) no pasaron por getOutputStream/getWriter.
+            wrapper.writeHeaders(snapshot);
+        }
+        meterRegistry.ifAvailable(registry -> record(registry, request, snapshot));
+    }
+
+    private static void record(MeterRegistry registry, HttpServletRequest request, SqlStatementCounter.Snapshot s) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("http.server.requests.sql.statements")
+            .description("Sentencias SQL por solicitud HTTP")
+            .tag("method", request.getMethod())
+            .tag("uri", uri)
+            .register(registry)
+            .record(s.statements());
+        Timer.builder("http.server.requests.sql.time")
+            .description("Tiempo JDBC por solicitud HTTP")
+            .tag("method", request.getMethod())
+            .tag("uri", uri)
+            .register(registry)
+            .record(Duration.ofNanos(s.nanos()));
+    }
+
+    /**
+     * Agrega las cabeceras con el conteo actual antes de que la respuesta empiece a escribirse.
+     */
+    private static final class HeaderWritingResponse extends HttpServletResponseWrapper {
+
+        private boolean written;
+
+        private HeaderWritingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void writeHeaders(SqlStatementCounter.Snapshot snapshot) {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(snapshot.statements()));
+            setHeader(TIME_HEADER, String.valueOf(snapshot.nanos() / 1_000));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders(SqlStatementCounter.current());
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders(SqlStatementCounter.current());
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders(SqlStatementCounter.current());
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders(SqlStatementCounter.current());
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders(SqlStatementCounter.current());
+            super.sendError(sc);
+        }
+    }
+}
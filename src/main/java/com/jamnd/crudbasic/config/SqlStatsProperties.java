@@ -0,0 +1,17 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuracion del conteo de sentencias SQL por solicitud HTTP.
+ *
+ * @param enabled habilita el conteo y las metricas por solicitud
+ * @param headers agrega los conteos como cabeceras de respuesta (solo fuera de produccion)
+ */
+@ConfigurationProperties(prefix = "app.sql-stats")
+public record SqlStatsProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("false") boolean headers
+) {
+}
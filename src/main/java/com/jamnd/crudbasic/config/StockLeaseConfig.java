@@ -0,0 +1,45 @@
+package com.jamnd.crudbasic.config;
+
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import com.jamnd.crudbasic.service.StockLeaseManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Configuracion de las reservas de stock con arriendos locales.
+ * <p>
+ * Solo se activa con {@code app.productos.stock.lease.enabled=true}; sin ella todas las
+ * reservas van directo a la fila con un UPDATE condicional.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.productos.stock.lease", name = "enabled", havingValue = "true")
+public class StockLeaseConfig {
+
+    /**
+     * Crea el administrador de arriendos de stock.
+     *
+     * @param properties configuracion de arriendos
+     * @param productoRepository repositorio de productos
+     * @param transactionManager administrador de transacciones
+     * @param cacheManager cache de productos, si esta activa
+     * @param eventPublisher publicador de cambios de stock
+     * @return administrador de arriendos
+     */
+    @Bean
+    public StockLeaseManager stockLeaseManager(
+        StockLeaseProperties properties,
+        ProductoRepository productoRepository,
+        PlatformTransactionManager transactionManager,
+        ObjectProvider<CacheManager> cacheManager,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        return new StockLeaseManager(properties, productoRepository, transactionManager, cacheManager, eventPublisher);
+    }
+}
@@ -0,0 +1,26 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Configuracion de las reservas en memoria para productos de alta contencion.
+ *
+ * @param enabled habilita el modo
+ * @param skus SKU de los productos que reservan contra un arriendo local
+ * @param leaseSize unidades que se descuentan de la fila en cada arriendo
+ * @param stripes contadores independientes por producto para repartir la contencion
+ * @param flushInterval cada cuanto se escriben en la base las devoluciones acumuladas
+ */
+@ConfigurationProperties(prefix = "app.productos.stock.lease")
+public record StockLeaseProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue Set<String> skus,
+    @DefaultValue("100") int leaseSize,
+    @DefaultValue("8") int stripes,
+    @DefaultValue("1s") Duration flushInterval
+) {
+}
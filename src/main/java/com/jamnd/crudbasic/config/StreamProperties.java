@@ -0,0 +1,43 @@
+package com.jamnd.crudbasic.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuracion del stream SSE de cambios de productos.
+ *
+ * @param buffer eventos pendientes por suscriptor antes de aplicar la politica de desborde
+ * @param desborde que hacer con un suscriptor cuyo buffer se lleno
+ * @param bufferRecuperacion eventos en vivo retenidos mientras se envian los recuperados con Last-Event-ID
+ * @param maxSuscriptores suscriptores simultaneos por instancia
+ * @param heartbeat silencio maximo antes de enviar un comentario; detecta clientes caidos
+ * @param timeout duracion maxima de una conexion, 0 para no cortarla
+ */
+@ConfigurationProperties(prefix = "app.productos.stream")
+public record StreamProperties(
+    @DefaultValue("256") int buffer,
+    @DefaultValue("DESCONECTAR") Desborde desborde,
+    @DefaultValue("10000") int bufferRecuperacion,
+    @DefaultValue("10000") int maxSuscriptores,
+    @DefaultValue("15s") Duration heartbeat,
+    @DefaultValue("30m") Duration timeout
+) {
+
+    /**
+     * Politica para suscriptores lentos.
+     */
+    public enum Desborde {
+
+        /**
+         * Cierra la conexion. EventSource reconecta con Last-Event-ID y recupera lo perdido del feed.
+         */
+        DESCONECTAR,
+
+        /**
+         * Descarta el evento nuevo y mantiene la conexion; el cliente puede perder cambios.
+         */
+        DESCARTAR
+    }
+}
@@ -0,0 +1,69 @@
+package com.jamnd.crudbasic.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ConverterFactory;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Configuracion web de la API.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+    public WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+        this.objectMapperBuilders = objectMapperBuilders;
+    }
+
+    /**
+     * Permite recibir enums en minusculas, por ejemplo totalMode=none.
+     *
+     * @param registry registro de conversores
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverterFactory(new CaseInsensitiveEnumConverterFactory());
+    }
+
+    /**
+     * Configura CBOR y Smile con los mismos modulos y opciones que el JSON de la aplicacion
+     * y agrega Protobuf al final. JSON queda primero, asi un Accept comodin o ausente sigue
+     * recibiendo JSON.
+     *
+     * @param converters conversores ya registrados
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+            || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+            objectMapperBuilders.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+            objectMapperBuilders.getObject().factory(new SmileFactory()).build()));
+        converters.add(new ProtobufHttpMessageConverter());
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class CaseInsensitiveEnumConverterFactory implements ConverterFactory<String, Enum> {
+
+        @Override
+        public <T extends Enum> Converter<String, T> getConverter(Class<T> targetType) {
+            return source -> source.isBlank()
+                ? null
+                : (T) Enum.valueOf(targetType, source.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+}
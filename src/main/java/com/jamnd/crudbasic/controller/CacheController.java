@@ -0,0 +1,79 @@
+package com.jamnd.crudbasic.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.jamnd.crudbasic.dto.CacheStatsResponse;
+import com.jamnd.crudbasic.mapper.ProductoJsonCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Controlador REST para consultar estadisticas de las caches locales.
+ */
+@RestController
+@RequestMapping("/api/v1/cache")
+@Tag(name = "Cache", description = "Estadisticas de caches locales")
+public class CacheController {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<ProductoJsonCache> productoJsonCache;
+
+    public CacheController(
+        ObjectProvider<CacheManager> cacheManager,
+        ObjectProvider<ProductoJsonCache> productoJsonCache
+    ) {
+        this.cacheManager = cacheManager;
+        this.productoJsonCache = productoJsonCache;
+    }
+
+    /**
+     * Lista las estadisticas de cada cache habilitada, incluida la de productos serializados en JSON.
+     *
+     * @return estadisticas por cache
+     */
+    @Operation(summary = "Estadisticas de cache", description = "Aciertos, fallos y expulsiones por cache")
+    @ApiResponse(responseCode = "200", description = "Estadisticas obtenidas")
+    @GetMapping
+    public ResponseEntity<List<CacheStatsResponse>> stats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager != null) {
+            manager.getCacheNames().stream()
+                .map(manager::getCache)
+                .filter(Objects::nonNull)
+                .map(this::toStats)
+                .filter(Objects::nonNull)
+                .forEach(stats::add);
+        }
+        productoJsonCache.ifAvailable(json -> stats.add(toStats(ProductoJsonCache.NOMBRE, json.size(), json.stats())));
+        return ResponseEntity.ok(stats);
+    }
+
+    private CacheStatsResponse toStats(Cache cache) {
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return null;
+        }
+        return toStats(cache.getName(), nativeCache.estimatedSize(), nativeCache.stats());
+    }
+
+    private CacheStatsResponse toStats(String name, long size, CacheStats stats) {
+        return new CacheStatsResponse(
+            name,
+            size,
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package com.jamnd.crudbasic.controller;
+
+import com.jamnd.crudbasic.config.JdbcConcurrencyGate;
+import com.jamnd.crudbasic.dto.JdbcGateStatsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador REST para consultar el limite de conexiones JDBC.
+ */
+@RestController
+@RequestMapping("/api/v1/concurrencia")
+@Tag(name = "Concurrencia", description = "Estado del limite de conexiones JDBC")
+public class ConcurrenciaController {
+
+    private final ObjectProvider<JdbcConcurrencyGate> gate;
+
+    public ConcurrenciaController(ObjectProvider<JdbcConcurrencyGate> gate) {
+        this.gate = gate;
+    }
+
+    /**
+     * Devuelve permisos, cola y tiempos de espera del limite JDBC.
+     *
+     * @return estadisticas del limite, con enabled=false si no esta activo
+     */
+    @Operation(summary = "Estadisticas JDBC", description = "Permisos libres, cola y tiempo de espera por conexion")
+    @ApiResponse(responseCode = "200", description = "Estadisticas obtenidas")
+    @GetMapping("/jdbc")
+    public ResponseEntity<JdbcGateStatsResponse> jdbc() {
+        JdbcConcurrencyGate current = gate.getIfAvailable();
+        return ResponseEntity.ok(current == null ? JdbcGateStatsResponse.disabled() : current.stats());
+    }
+}
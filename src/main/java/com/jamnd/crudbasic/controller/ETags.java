@@ -0,0 +1,110 @@
+package com.jamnd.crudbasic.controller;
+
+import com.jamnd.crudbasic.dto.CatalogVersion;
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.exception.VersionConflictException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Calcula ETags fuertes de productos y listados.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * ETag de un producto: id mas version de bloqueo optimista.
+     * La version cambia en cada actualizacion junto con updatedAt, sin colisiones por reloj.
+     * Las representaciones binarias agregan su sufijo para que un 304 nunca valide bytes de otro formato.
+     *
+     * @param producto producto a versionar
+     * @param representacion representacion entregada
+     * @return ETag entre comillas
+     */
+    static String producto(ProductoResponse producto, Representacion representacion) {
+        String sufijo = representacion.sufijo().isEmpty() ? "" : "-" + representacion.sufijo();
+        return "\"" + producto.id() + "-" + producto.version() + sufijo + "\"";
+    }
+
+    /**
+     * Obtiene la version esperada a partir de un encabezado If-Match.
+     * Acepta el ETag de cualquier representacion.
+     *
+     * @param ifMatch valor recibido, null o {@code *} si no se exige version
+     * @param id id del producto a actualizar
+     * @return version esperada, o null si no se exige
+     * @throws VersionConflictException si el ETag no corresponde al producto o no es fuerte
+     */
+    static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        String prefix = "\"" + id + "-";
+        if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+            String version = value.substring(prefix.length(), value.length() - 1);
+            for (Representacion representacion : Representacion.values()) {
+                if (!representacion.sufijo().isEmpty() && version.endsWith("-" + representacion.sufijo())) {
+                    version = version.substring(0, version.length() - representacion.sufijo().length() - 1);
+                    break;
+                }
+            }
+            try {
+                return Long.parseLong(version);
+            } catch (NumberFormatException ex) {
+                // Cae al rechazo de abajo.
+            }
+        }
+        throw new VersionConflictException("If-Match no corresponde a una version de este producto: " + value);
+    }
+
+    /**
+     * ETag de un listado: parametros de la consulta mas cantidad y ultima actualizacion del filtro.
+     *
+     * @param version agregado del filtro
+     * @param query parametros normalizados que definen la pagina
+     * @return ETag entre comillas
+     */
+    static String listado(CatalogVersion version, String query) {
+        String source = query + "|" + version.count() + "|" + micros(version.lastUpdatedAt());
+        return "\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * ETag de un listado calculado con la pagina ya consultada: parametros de la consulta, datos de
+     * paginacion e id y version de cada producto. Las filas parciales de {@code fields} entran con sus
+     * valores, porque pueden no incluir la version. No necesita agregados del filtro completo.
+     *
+     * @param page pagina entregada
+     * @param query parametros normalizados que definen la pagina
+     * @return ETag entre comillas
+     */
+    static String pagina(PageResponse<?> page, String query) {
+        StringBuilder source = new StringBuilder(query)
+            .append('|').append(page.totalElements())
+            .append('|').append(page.hasNext())
+            .append('|').append(page.nextCursor());
+        for (Object row : page.content()) {
+            source.append('|');
+            if (row instanceof ProductoResponse producto) {
+                source.append(producto.id()).append('-').append(producto.version());
+            } else {
+                source.append(row);
+            }
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static long micros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+}
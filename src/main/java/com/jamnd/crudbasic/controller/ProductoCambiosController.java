@@ -0,0 +1,110 @@
+package com.jamnd.crudbasic.controller;
+
+import com.jamnd.crudbasic.dto.ApiErrorResponse;
+import com.jamnd.crudbasic.dto.CambiosResponse;
+import com.jamnd.crudbasic.service.ProductoCambiosService;
+import com.jamnd.crudbasic.service.ProductoStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controlador REST del feed incremental de cambios de productos.
+ */
+@Validated
+@RestController
+@RequestMapping("/api/v1/productos/changes")
+@Tag(name = "Cambios", description = "Altas, modificaciones y bajas de productos desde un token")
+public class ProductoCambiosController {
+
+    /**
+     * Cantidad maxima de cambios por consulta.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    private final ProductoCambiosService cambiosService;
+    private final ProductoStreamService streamService;
+
+    public ProductoCambiosController(ProductoCambiosService cambiosService, ProductoStreamService streamService) {
+        this.cambiosService = cambiosService;
+        this.streamService = streamService;
+    }
+
+    /**
+     * Lista los cambios posteriores al token.
+     *
+     * @param since token de la consulta anterior, vacio para recorrer desde el inicio
+     * @param limit cantidad maxima de cambios
+     * @return cambios y token siguiente
+     */
+    @Operation(
+        summary = "Cambios de productos",
+        description = "Devuelve altas y modificaciones (UPSERT, con el producto actual) y bajas (DELETE) "
+            + "posteriores al token, en orden de fecha e id. Guardar nextToken y enviarlo en since en la "
+            + "siguiente consulta. Responde 410 si el token es anterior a la retencion de bajas"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cambios obtenidos"),
+        @ApiResponse(responseCode = "400", description = "Token o limite invalido",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "410", description = "Token vencido, resincronizar con /export",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @GetMapping
+    public ResponseEntity<CambiosResponse> findCambios(
+        @Parameter(description = "nextToken de la respuesta anterior. Vacio para iniciar")
+        @RequestParam(required = false) String since,
+        @Parameter(description = "Cantidad maxima de cambios")
+        @RequestParam(defaultValue = "100")
+        @Min(value = 1, message = "limit debe ser mayor o igual a 1")
+        @Max(value = MAX_LIMIT, message = "limit debe ser menor o igual a " + MAX_LIMIT) int limit
+    ) {
+        return ResponseEntity.ok(cambiosService.findCambios(since, limit));
+    }
+
+    /**
+     * Abre un stream SSE con los cambios confirmados desde ahora.
+     *
+     * @param since token desde el cual recuperar cambios antes de seguir en vivo, opcional
+     * @param lastEventId id del ultimo evento recibido, lo envia EventSource al reconectar
+     * @return emisor SSE
+     */
+    @Operation(
+        summary = "Stream de cambios de productos",
+        description = "Envia por Server-Sent Events cada alta o modificacion (upsert) y baja (delete) apenas se "
+            + "confirma, y resync tras un lote o una importacion. El id de cada evento es un token del feed: "
+            + "con Last-Event-ID o since se recuperan antes los cambios perdidos. Un cliente que no consume a "
+            + "tiempo se desconecta o pierde eventos segun app.productos.stream.desborde"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream abierto",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+        @ApiResponse(responseCode = "400", description = "Token invalido", content = @Content),
+        @ApiResponse(responseCode = "410", description = "Token vencido, resincronizar con /export",
+            content = @Content),
+        @ApiResponse(responseCode = "503", description = "Maximo de suscriptores alcanzado", content = @Content)
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+        @Parameter(description = "Token desde el cual recuperar cambios. Last-Event-ID tiene prioridad")
+        @RequestParam(required = false) String since,
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return streamService.subscribe(lastEventId != null && !lastEventId.isBlank() ? lastEventId : since);
+    }
+}
@@ -1,9 +1,22 @@
 package com.jamnd.crudbasic.controller;
 
 import com.jamnd.crudbasic.dto.ApiErrorResponse;
+import com.jamnd.crudbasic.dto.BatchCreateResponse;
+import com.jamnd.crudbasic.dto.CatalogFormat;
+import com.jamnd.crudbasic.dto.FacetsResponse;
+import com.jamnd.crudbasic.dto.ImportResponse;
 import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoFilter;
+import com.jamnd.crudbasic.dto.ProductoPatchRequest;
 import com.jamnd.crudbasic.dto.ProductoRequest;
 import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.ProductoSortField;
+import com.jamnd.crudbasic.dto.TotalMode;
+import com.jamnd.crudbasic.exception.InvalidFilterException;
+import com.jamnd.crudbasic.exception.InvalidSortException;
+import com.jamnd.crudbasic.service.ProductoExportService;
+import com.jamnd.crudbasic.service.ProductoFacetService;
+import com.jamnd.crudbasic.service.ProductoImportService;
 import com.jamnd.crudbasic.service.ProductoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,27 +25,40 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
-import org.springframework.data.domain.Page;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Controlador REST para CRUD de productos.
@@ -43,16 +69,45 @@ import java.net.URI;
 @Tag(name = "Productos", description = "API para administrar productos de tienda")
 public class ProductoController {
 
+    /**
+     * Cantidad maxima de productos por lote.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Media type de NDJSON para importacion.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Cantidad maxima de limites de precio en los conteos.
+     */
+    public static final int MAX_PRICE_BUCKETS = 20;
+
+    private static final String TEXT_CSV = "text/csv";
+
     private final ProductoService productoService;
+    private final ProductoImportService productoImportService;
+    private final ProductoExportService productoExportService;
+    private final ProductoFacetService productoFacetService;
 
-    public ProductoController(ProductoService productoService) {
+    public ProductoController(
+        ProductoService productoService,
+        ProductoImportService productoImportService,
+        ProductoExportService productoExportService,
+        ProductoFacetService productoFacetService
+    ) {
         this.productoService = productoService;
+        this.productoImportService = productoImportService;
+        this.productoExportService = productoExportService;
+        this.productoFacetService = productoFacetService;
     }
 
     /**
      * Crea un producto.
      *
      * @param request datos del producto
+     * @param accept representaciones aceptadas
      * @return producto creado
      */
     @Operation(summary = "Crear producto", description = "Crea un producto nuevo")
@@ -65,14 +120,145 @@ public class ProductoController {
             content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @PostMapping
-    public ResponseEntity<ProductoResponse> create(@Valid @RequestBody ProductoRequest request) {
+    public ResponseEntity<ProductoResponse> create(
+        @Valid @RequestBody ProductoRequest request,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
         ProductoResponse response = productoService.create(request);
         URI location = ServletUriComponentsBuilder
             .fromCurrentRequest()
             .path("/{id}")
             .buildAndExpand(response.id())
             .toUri();
-        return ResponseEntity.created(location).body(response);
+        return withRepresentation(ResponseEntity.created(location), response, accept);
+    }
+
+    /**
+     * Crea varios productos en una sola solicitud.
+     *
+     * @param requests productos a crear, maximo {@value #MAX_BATCH_SIZE}
+     * @return resultado por elemento
+     */
+    @Operation(
+        summary = "Crear productos por lote",
+        description = "Valida todos los elementos, verifica SKU duplicados con una sola consulta "
+            + "e inserta los validos en batches JDBC. Reporta el resultado de cada elemento"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote procesado",
+            content = @Content(schema = @Schema(implementation = BatchCreateResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Lote vacio o demasiado grande",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResponse> createBatch(
+        @RequestBody
+        @NotNull(message = "El lote es obligatorio")
+        @Size(min = 1, max = MAX_BATCH_SIZE, message = "El lote debe tener entre 1 y " + MAX_BATCH_SIZE + " productos")
+        List<ProductoRequest> requests
+    ) {
+        return ResponseEntity.ok(productoService.createBatch(requests));
+    }
+
+    /**
+     * Importa productos desde un CSV o NDJSON enviado en el body.
+     *
+     * @param contentType tipo de contenido del body
+     * @param body contenido a importar, se lee como flujo
+     * @return resumen de la importacion
+     */
+    @Operation(
+        summary = "Importar productos",
+        description = "Lee el body como flujo (text/csv con encabezado o application/x-ndjson), valida cada fila, "
+            + "inserta o actualiza por sku y confirma por bloques. La memoria no depende del tamano del archivo"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importacion terminada",
+            content = @Content(schema = @Schema(implementation = ImportResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Archivo invalido",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    public ResponseEntity<ImportResponse> importProductos(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) {
+        CatalogFormat format = MediaType.parseMediaType(TEXT_CSV).isCompatibleWith(contentType)
+            ? CatalogFormat.CSV
+            : CatalogFormat.NDJSON;
+        return ResponseEntity.ok(productoImportService.importProductos(body, format));
+    }
+
+    /**
+     * Exporta el catalogo completo como flujo NDJSON, CSV, CBOR, Smile o Protobuf.
+     *
+     * @param format formato de salida, si falta se elige con Accept
+     * @param accept representaciones aceptadas
+     * @param response respuesta HTTP donde se escriben las filas
+     * @throws IOException si falla la escritura
+     */
+    @Operation(
+        summary = "Exportar productos",
+        description = "Escribe todos los productos ordenados por id a medida que se leen con un cursor "
+            + "de base de datos, en una sola consulta y con memoria constante. Sin format, Accept "
+            + "application/cbor, application/x-jackson-smile o application/x-protobuf elige un formato binario"
+    )
+    @ApiResponse(responseCode = "200", description = "Catalogo exportado",
+        content = {@Content(mediaType = APPLICATION_NDJSON), @Content(mediaType = TEXT_CSV)})
+    @GetMapping("/export")
+    public void exportProductos(
+        @Parameter(description = "Formato de salida: ndjson, csv, cbor, smile o protobuf")
+        @RequestParam(required = false) CatalogFormat format,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        HttpServletResponse response
+    ) throws IOException {
+        CatalogFormat formato = format != null ? format : switch (Representacion.negociar(accept)) {
+            case JSON -> CatalogFormat.NDJSON;
+            case CBOR -> CatalogFormat.CBOR;
+            case SMILE -> CatalogFormat.SMILE;
+            case PROTOBUF -> CatalogFormat.PROTOBUF;
+        };
+        String contentType = switch (formato) {
+            case CSV -> TEXT_CSV + ";charset=UTF-8";
+            case NDJSON -> APPLICATION_NDJSON + ";charset=UTF-8";
+            case CBOR -> Representacion.CBOR.mediaType().toString();
+            case SMILE -> Representacion.SMILE.mediaType().toString();
+            case PROTOBUF -> Representacion.PROTOBUF.mediaType().toString();
+        };
+        response.setContentType(contentType);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"productos." + formato.name().toLowerCase(Locale.ROOT) + "\"");
+        productoExportService.exportProductos(response.getOutputStream(), formato);
+    }
+
+    /**
+     * Cuenta productos por categoria y por rango de precio.
+     *
+     * @param soloActivos si se cuentan solo productos activos
+     * @param precios limites de los rangos de precio
+     * @return conteos del catalogo
+     */
+    @Operation(
+        summary = "Conteos por categoria y precio",
+        description = "Devuelve la cantidad de productos por categoria y, si se envian limites, por rango de "
+            + "precio. Los conteos se sirven desde memoria y se ajustan con cada alta, cambio o baja"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Conteos obtenidos"),
+        @ApiResponse(responseCode = "400", description = "Parametros invalidos",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<FacetsResponse> findFacets(
+        @Parameter(description = "Omite categorias sin productos activos y cuenta solo activos por precio")
+        @RequestParam(defaultValue = "false") boolean soloActivos,
+        @Parameter(description = "Limites de los rangos de precio separados por coma. Ejemplo: 10,50,100")
+        @RequestParam(required = false)
+        @Size(max = MAX_PRICE_BUCKETS, message = "precios admite hasta " + MAX_PRICE_BUCKETS + " limites")
+        List<BigDecimal> precios
+    ) {
+        return ResponseEntity.ok(productoFacetService.findFacets(soloActivos, precios));
     }
 
     /**
@@ -80,50 +266,135 @@ public class ProductoController {
      *
      * @param page numero de pagina
      * @param size tamano de pagina
-     * @param sort orden como campo,direccion
+     * @param sort orden como campo,direccion, con un campo de {@link ProductoSortField}
      * @param nombre filtro opcional por nombre
-     * @return respuesta paginada
+     * @param categoria filtro opcional por categoria exacta
+     * @param activo filtro opcional por estado activo
+     * @param precioMin precio minimo opcional, inclusive
+     * @param precioMax precio maximo opcional, inclusive
+     * @param stockMin stock minimo opcional, inclusive
+     * @param cursor cursor opaco para paginacion keyset, vacio para iniciar
+     * @param totalMode modo de calculo de totales
+     * @param fields propiedades a devolver, vacio para el producto completo
+     * @param webRequest solicitud actual, para validar If-None-Match y leer Accept
+     * @param response respuesta HTTP, para declarar Vary tambien en el 304
+     * @return respuesta paginada, o null si ya se respondio 304
      */
     @Operation(
         summary = "Listar productos",
-        description = "Lista productos con paginacion, orden y filtro opcional por nombre"
+        description = "Lista productos con paginacion, orden y filtros opcionales por nombre, categoria, "
+            + "estado activo, rango de precio y stock minimo. "
+            + "Solo se ordena por createdAt, updatedAt, nombre, precio o id, con id como desempate. "
+            + "Si se envia cursor se usa paginacion keyset y se ignora page. "
+            + "Con fields solo se consultan las columnas indicadas. "
+            + "Responde 304 si If-None-Match coincide con el ETag actual; con totalMode exact se decide "
+            + "antes de consultar la pagina. "
+            + "Accept application/cbor, application/x-jackson-smile o application/x-protobuf "
+            + "devuelve la misma pagina en formato binario"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Listado obtenido"),
+        @ApiResponse(responseCode = "304", description = "El listado no cambio", content = @Content),
         @ApiResponse(responseCode = "400", description = "Parametros invalidos",
             content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @GetMapping
-    public ResponseEntity<PageResponse<ProductoResponse>> findAll(
+    public ResponseEntity<PageResponse<?>> findAll(
         @Parameter(description = "Pagina actual, inicia en 0")
         @RequestParam(defaultValue = "0") @Min(value = 0, message = "page debe ser mayor o igual a 0") int page,
         @Parameter(description = "Tamano de pagina")
         @RequestParam(defaultValue = "10") @Min(value = 1, message = "size debe ser mayor o igual a 1") int size,
-        @Parameter(description = "Orden en formato campo,direccion. Ejemplo: createdAt,desc")
+        @Parameter(description = "Orden en formato campo,direccion. Campos: createdAt, updatedAt, nombre, precio, id. "
+            + "Ejemplo: createdAt,desc")
         @RequestParam(defaultValue = "createdAt,desc") String sort,
         @Parameter(description = "Filtro opcional por nombre con contains ignore case")
-        @RequestParam(required = false) String nombre
+        @RequestParam(required = false) String nombre,
+        @Parameter(description = "Filtro opcional por categoria exacta")
+        @RequestParam(required = false) String categoria,
+        @Parameter(description = "Filtro opcional por estado activo")
+        @RequestParam(required = false) Boolean activo,
+        @Parameter(description = "Precio minimo, inclusive")
+        @RequestParam(required = false)
+        @DecimalMin(value = "0", message = "precioMin debe ser mayor o igual a 0") BigDecimal precioMin,
+        @Parameter(description = "Precio maximo, inclusive")
+        @RequestParam(required = false)
+        @DecimalMin(value = "0", message = "precioMax debe ser mayor o igual a 0") BigDecimal precioMax,
+        @Parameter(description = "Stock minimo, inclusive")
+        @RequestParam(required = false)
+        @Min(value = 0, message = "stockMin debe ser mayor o igual a 0") Integer stockMin,
+        @Parameter(description = "Cursor opaco de la respuesta anterior (nextCursor). Enviar vacio para iniciar")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Calculo de totales: exact, estimated o none. "
+            + "Default exact con page y none con cursor")
+        @RequestParam(required = false) TotalMode totalMode,
+        @Parameter(description = "Propiedades a devolver separadas por coma. Ejemplo: sku,nombre,precio. "
+            + "El id siempre se incluye")
+        @RequestParam(required = false) List<String> fields,
+        WebRequest webRequest,
+        HttpServletResponse response
     ) {
-        Pageable pageable = PageRequest.of(page, size, buildSort(sort));
-        Page<ProductoResponse> result = productoService.findAll(nombre, pageable);
-        return ResponseEntity.ok(PageResponse.fromPage(result));
+        if (precioMin != null && precioMax != null && precioMin.compareTo(precioMax) > 0) {
+            throw new InvalidFilterException("precioMin no puede ser mayor que precioMax");
+        }
+        Sort order = buildSort(sort);
+        ProductoFilter filtro = new ProductoFilter(nombre, categoria, activo, precioMin, precioMax, stockMin);
+        Representacion representacion = Representacion.negociar(webRequest.getHeader(HttpHeaders.ACCEPT));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String query = "page=" + page + "&size=" + size + "&sort=" + sort + "&filtro=" + filtro
+            + "&cursor=" + cursor + "&totalMode=" + totalMode + "&fields=" + fields
+            + "&representacion=" + representacion;
+        TotalMode mode = totalMode != null ? totalMode : cursor != null ? TotalMode.NONE : TotalMode.EXACT;
+        // Con total exacto el filtro ya se cuenta: el 304 se decide con ese agregado antes de consultar
+        // la pagina. En los demas modos se evita recorrer el filtro y el ETag sale de la pagina entregada.
+        boolean exacto = mode == TotalMode.EXACT;
+        if (exacto && webRequest.checkNotModified(ETags.listado(productoService.findVersion(filtro), query))) {
+            return null;
+        }
+        boolean partial = fields != null && !fields.isEmpty();
+        PageResponse<?> body;
+        if (cursor != null) {
+            body = partial
+                ? productoService.findFieldsByCursor(filtro, fields, cursor, size, order, mode)
+                : productoService.findAllByCursor(filtro, cursor, size, order, mode);
+        } else {
+            Pageable pageable = PageRequest.of(page, size, order);
+            body = partial
+                ? productoService.findFields(filtro, fields, pageable, mode)
+                : productoService.findAll(filtro, pageable, mode);
+        }
+        if (!exacto && webRequest.checkNotModified(ETags.pagina(body, query))) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(representacion.mediaType()).body(body);
     }
 
     /**
      * Obtiene un producto por id.
      *
      * @param id id del producto
+     * @param accept representaciones aceptadas
      * @return producto encontrado
      */
-    @Operation(summary = "Obtener producto", description = "Obtiene un producto por su id")
+    @Operation(
+        summary = "Obtener producto",
+        description = "Obtiene un producto por su id. Responde 304 si If-None-Match coincide con el ETag actual. "
+            + "Accept application/cbor, application/x-jackson-smile o application/x-protobuf "
+            + "devuelve el producto en formato binario, con un ETag propio"
+    )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Producto encontrado"),
+        @ApiResponse(responseCode = "304", description = "El producto no cambio", content = @Content),
         @ApiResponse(responseCode = "404", description = "Producto no encontrado",
             content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ProductoResponse> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(productoService.findById(id));
+    public ResponseEntity<ProductoResponse> findById(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        ProductoResponse response = productoService.findById(id);
+        // Con ETag en la respuesta Spring contesta 304 sin serializar el cuerpo.
+        return withRepresentation(ResponseEntity.ok(), response, accept);
     }
 
     /**
@@ -131,6 +402,7 @@ public class ProductoController {
      *
      * @param id id del producto
      * @param request datos nuevos
+     * @param accept representaciones aceptadas
      * @return producto actualizado
      */
     @Operation(summary = "Actualizar producto", description = "Actualiza un producto existente")
@@ -144,8 +416,49 @@ public class ProductoController {
             content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
     })
     @PutMapping("/{id}")
-    public ResponseEntity<ProductoResponse> update(@PathVariable Long id, @Valid @RequestBody ProductoRequest request) {
-        return ResponseEntity.ok(productoService.update(id, request));
+    public ResponseEntity<ProductoResponse> update(
+        @PathVariable Long id,
+        @Valid @RequestBody ProductoRequest request,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        ProductoResponse response = productoService.update(id, request);
+        return withRepresentation(ResponseEntity.ok(), response, accept);
+    }
+
+    /**
+     * Actualiza parcialmente un producto por id.
+     *
+     * @param id id del producto
+     * @param request campos a modificar
+     * @param ifMatch ETag del producto leido por el cliente, opcional
+     * @param accept representaciones aceptadas
+     * @return producto actualizado
+     */
+    @Operation(
+        summary = "Actualizar producto parcialmente",
+        description = "Modifica solo los campos enviados con un unico UPDATE. "
+            + "Con If-Match se rechaza con 412 si el producto cambio desde que se leyo"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Producto actualizado"),
+        @ApiResponse(responseCode = "400", description = "Error de validacion",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "SKU duplicado",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "412", description = "La version no coincide con If-Match",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductoResponse> patch(
+        @PathVariable Long id,
+        @Valid @RequestBody ProductoPatchRequest request,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        ProductoResponse response = productoService.patch(id, request, ETags.expectedVersion(ifMatch, id));
+        return withRepresentation(ResponseEntity.ok(), response, accept);
     }
 
     /**
@@ -166,13 +479,41 @@ public class ProductoController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
-    private Sort buildSort(String sortParam) {
+    /**
+     * Responde el producto en el formato negociado por Accept, con el ETag de ese formato.
+     */
+    private static ResponseEntity<ProductoResponse> withRepresentation(
+        ResponseEntity.BodyBuilder builder,
+        ProductoResponse response,
+        String accept
+    ) {
+        Representacion representacion = Representacion.negociar(accept);
+        return builder
+            .contentType(representacion.mediaType())
+            .varyBy(HttpHeaders.ACCEPT)
+            .eTag(ETags.producto(response, representacion))
+            .body(response);
+    }
+
+    /**
+     * Convierte el parametro sort en un orden con id como desempate en la misma direccion, para que
+     * lo resuelva el indice (campo, id). Se valida antes de cualquier consulta.
+     */
+    static Sort buildSort(String sortParam) {
         String[] parts = sortParam.split(",");
+        if (parts.length > 2) {
+            throw new InvalidSortException("sort debe tener el formato campo,direccion");
+        }
         String property = parts.length > 0 && !parts[0].isBlank() ? parts[0].trim() : "createdAt";
+        ProductoSortField field = ProductoSortField.fromProperty(property)
+            .orElseThrow(() -> new InvalidSortException(
+                "No se puede ordenar por " + property + ". Campos soportados: " + ProductoSortField.PROPERTIES));
         Sort.Direction direction = Sort.Direction.DESC;
-        if (parts.length > 1) {
-            direction = Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.DESC);
+        if (parts.length > 1 && !parts[1].isBlank()) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                .orElseThrow(() -> new InvalidSortException("Direccion de orden invalida: " + parts[1].trim()));
         }
-        return Sort.by(direction, property);
+        Sort sort = Sort.by(direction, field.property());
+        return field == ProductoSortField.ID ? sort : sort.and(Sort.by(direction, ProductoSortField.ID.property()));
     }
 }
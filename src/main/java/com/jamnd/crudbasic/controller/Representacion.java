@@ -0,0 +1,73 @@
+package com.jamnd.crudbasic.controller;
+
+import com.jamnd.crudbasic.mapper.ProductoProtobuf;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representaciones de productos y listados que se eligen con el encabezado Accept.
+ * <p>
+ * JSON es la opcion por defecto; las binarias se entregan solo si el cliente las pide.
+ */
+enum Representacion {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.parseMediaType("application/cbor"), "cbor"),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "smile"),
+    PROTOBUF(MediaType.parseMediaType(ProductoProtobuf.MEDIA_TYPE), "protobuf");
+
+    private final MediaType mediaType;
+    private final String sufijo;
+
+    Representacion(MediaType mediaType, String sufijo) {
+        this.mediaType = mediaType;
+        this.sufijo = sufijo;
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Sufijo que distingue el ETag de esta representacion, vacio para JSON.
+     *
+     * @return sufijo del ETag
+     */
+    String sufijo() {
+        return sufijo;
+    }
+
+    /**
+     * Elige la representacion con mayor calidad en Accept. Ante empate gana el orden del encabezado,
+     * y si nada coincide o el encabezado es invalido se usa JSON.
+     *
+     * @param accept encabezado Accept, puede ser null
+     * @return representacion a entregar
+     */
+    static Representacion negociar(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> aceptados;
+        try {
+            aceptados = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return JSON;
+        }
+        aceptados.sort((a, b) -> Double.compare(b.getQualityValue(), a.getQualityValue()));
+        for (MediaType aceptado : aceptados) {
+            if (aceptado.getQualityValue() == 0) {
+                break;
+            }
+            for (Representacion representacion : values()) {
+                if (aceptado.includes(representacion.mediaType)) {
+                    return representacion;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,99 @@
+package com.jamnd.crudbasic.controller;
+
+import com.jamnd.crudbasic.dto.ApiErrorResponse;
+import com.jamnd.crudbasic.dto.StockLeaseStatsResponse;
+import com.jamnd.crudbasic.dto.StockRequest;
+import com.jamnd.crudbasic.dto.StockResponse;
+import com.jamnd.crudbasic.service.ProductoStockService;
+import com.jamnd.crudbasic.service.StockLeaseManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador REST para reservar y liberar stock de forma atomica.
+ */
+@RestController
+@RequestMapping("/api/v1/productos/stock")
+@Tag(name = "Stock", description = "Reservas y liberaciones atomicas de stock")
+public class StockController {
+
+    private final ProductoStockService stockService;
+    private final ObjectProvider<StockLeaseManager> leaseManager;
+
+    public StockController(ProductoStockService stockService, ObjectProvider<StockLeaseManager> leaseManager) {
+        this.stockService = stockService;
+        this.leaseManager = leaseManager;
+    }
+
+    /**
+     * Reserva stock de una o varias lineas, todas o ninguna.
+     *
+     * @param request lineas a reservar
+     * @return stock restante por producto
+     */
+    @Operation(
+        summary = "Reservar stock",
+        description = "Descuenta stock con un UPDATE condicional por producto. Si alguna linea no alcanza "
+            + "no se aplica ninguna"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock reservado"),
+        @ApiResponse(responseCode = "400", description = "Error de validacion",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Stock insuficiente",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @PostMapping("/reserve")
+    public ResponseEntity<StockResponse> reserve(@Valid @RequestBody StockRequest request) {
+        return ResponseEntity.ok(stockService.reserve(request.lineas()));
+    }
+
+    /**
+     * Libera stock reservado de una o varias lineas.
+     *
+     * @param request lineas a liberar
+     * @return stock resultante por producto
+     */
+    @Operation(summary = "Liberar stock", description = "Devuelve stock reservado, todas las lineas o ninguna")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock liberado"),
+        @ApiResponse(responseCode = "400", description = "Error de validacion",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado",
+            content = @Content(schema = @Schema(implementation = ApiErrorResponse.class)))
+    })
+    @PostMapping("/release")
+    public ResponseEntity<StockResponse> release(@Valid @RequestBody StockRequest request) {
+        return ResponseEntity.ok(stockService.release(request.lineas()));
+    }
+
+    /**
+     * Devuelve el estado de los arriendos locales de productos de alta contencion.
+     *
+     * @return estadisticas de arriendos, con enabled=false si el modo no esta activo
+     */
+    @Operation(
+        summary = "Estadisticas de arriendos",
+        description = "Unidades arrendadas, devoluciones pendientes, arriendos agotados y retraso de escritura"
+    )
+    @ApiResponse(responseCode = "200", description = "Estadisticas obtenidas")
+    @GetMapping("/lease")
+    public ResponseEntity<StockLeaseStatsResponse> lease() {
+        StockLeaseManager current = leaseManager.getIfAvailable();
+        return ResponseEntity.ok(current == null ? StockLeaseStatsResponse.disabled() : current.stats());
+    }
+}
@@ -0,0 +1,26 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO de salida de una carga de productos por lote.
+ *
+ * @param total cantidad de elementos recibidos
+ * @param created cantidad de productos creados
+ * @param rejected cantidad de elementos rechazados
+ * @param items resultado por elemento, en el orden recibido
+ */
+@Schema(name = "BatchCreateResponse", description = "Resultado de la carga por lote")
+public record BatchCreateResponse(
+    @Schema(description = "Elementos recibidos", example = "3")
+    int total,
+    @Schema(description = "Productos creados", example = "2")
+    int created,
+    @Schema(description = "Elementos rechazados", example = "1")
+    int rejected,
+    @Schema(description = "Resultado por elemento")
+    List<BatchItemResult> items
+) {
+}
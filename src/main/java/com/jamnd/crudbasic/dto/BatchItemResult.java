@@ -0,0 +1,36 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado de un elemento dentro de una carga por lote.
+ *
+ * @param index posicion del elemento en el request, inicia en 0
+ * @param sku sku recibido
+ * @param status resultado del elemento
+ * @param id id generado si fue creado
+ * @param message detalle del rechazo, null si fue creado
+ */
+@Schema(name = "BatchItemResult", description = "Resultado de un producto del lote")
+public record BatchItemResult(
+    @Schema(description = "Posicion en el lote", example = "0")
+    int index,
+    @Schema(description = "SKU recibido", example = "SKU-1001")
+    String sku,
+    @Schema(description = "Resultado", example = "CREATED")
+    Status status,
+    @Schema(description = "Id generado", example = "51")
+    Long id,
+    @Schema(description = "Detalle del rechazo", example = "precio: El precio es obligatorio")
+    String message
+) {
+
+    /**
+     * Resultado posible de un elemento del lote.
+     */
+    public enum Status {
+        CREATED,
+        INVALID,
+        DUPLICATE
+    }
+}
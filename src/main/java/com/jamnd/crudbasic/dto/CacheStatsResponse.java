@@ -0,0 +1,27 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con estadisticas de una cache local.
+ *
+ * @param name nombre de la cache
+ * @param size cantidad estimada de entradas
+ * @param hitCount lecturas resueltas desde cache
+ * @param missCount lecturas que fueron a base de datos
+ * @param evictionCount entradas expulsadas por tamano o TTL
+ */
+@Schema(name = "CacheStatsResponse", description = "Estadisticas de cache")
+public record CacheStatsResponse(
+    @Schema(description = "Nombre de la cache", example = "productos")
+    String name,
+    @Schema(description = "Entradas en cache", example = "120")
+    long size,
+    @Schema(description = "Aciertos", example = "950")
+    long hitCount,
+    @Schema(description = "Fallos", example = "50")
+    long missCount,
+    @Schema(description = "Expulsiones por tamano o TTL", example = "3")
+    long evictionCount
+) {
+}
@@ -0,0 +1,23 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO con una pagina del feed de cambios.
+ *
+ * @param cambios cambios en orden de fecha e id
+ * @param nextToken token para pedir los cambios siguientes
+ * @param hasMore indica si ya hay mas cambios disponibles con nextToken
+ */
+@Schema(name = "CambiosResponse", description = "Cambios de productos desde un token")
+public record CambiosResponse(
+    @Schema(description = "Cambios en orden de fecha e id")
+    List<ProductoCambio> cambios,
+    @Schema(description = "Token para la siguiente consulta, siempre presente", example = "MTc3MTY3NTIwMDAwMDAwMC40Mg")
+    String nextToken,
+    @Schema(description = "true si hay mas cambios para pedir de inmediato con nextToken", example = "false")
+    boolean hasMore
+) {
+}
@@ -0,0 +1,33 @@
+package com.jamnd.crudbasic.dto;
+
+/**
+ * Formato de archivo para importar o exportar el catalogo de productos.
+ */
+public enum CatalogFormat {
+
+    /**
+     * CSV con encabezado: sku,nombre,descripcion,precio,stock,categoria,activo.
+     * La exportacion agrega id, createdAt y updatedAt.
+     */
+    CSV,
+
+    /**
+     * Un objeto JSON de producto por linea.
+     */
+    NDJSON,
+
+    /**
+     * Secuencia de productos CBOR, uno tras otro. Solo exportacion.
+     */
+    CBOR,
+
+    /**
+     * Secuencia de productos Smile, uno tras otro. Solo exportacion.
+     */
+    SMILE,
+
+    /**
+     * Mensajes Protobuf {@code Producto} precedidos por su largo. Solo exportacion.
+     */
+    PROTOBUF
+}
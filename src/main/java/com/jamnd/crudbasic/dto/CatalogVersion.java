@@ -0,0 +1,13 @@
+package com.jamnd.crudbasic.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Agregado barato que cambia cuando cambia cualquier producto de un filtro.
+ * Se usa para calcular el ETag de los listados.
+ *
+ * @param count cantidad de productos del filtro
+ * @param lastUpdatedAt mayor fecha de actualizacion del filtro, null si no hay productos
+ */
+public record CatalogVersion(long count, LocalDateTime lastUpdatedAt) {
+}
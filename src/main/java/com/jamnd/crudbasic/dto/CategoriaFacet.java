@@ -0,0 +1,21 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con la cantidad de productos de una categoria.
+ *
+ * @param categoria categoria, null para productos sin categoria
+ * @param total productos de la categoria
+ * @param activos productos activos de la categoria
+ */
+@Schema(name = "CategoriaFacet", description = "Cantidad de productos por categoria")
+public record CategoriaFacet(
+    @Schema(description = "Categoria, null si no tiene", example = "Accesorios")
+    String categoria,
+    @Schema(description = "Productos de la categoria", example = "42")
+    long total,
+    @Schema(description = "Productos activos de la categoria", example = "40")
+    long activos
+) {
+}
@@ -0,0 +1,18 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO con los conteos para la barra de filtros del catalogo.
+ *
+ * @param categorias conteos por categoria, ordenados por nombre
+ * @param precios conteos por rango de precio, vacio si no se pidieron rangos
+ */
+@Schema(name = "FacetsResponse", description = "Conteos por categoria y rango de precio")
+public record FacetsResponse(
+    List<CategoriaFacet> categorias,
+    List<PrecioFacet> precios
+) {
+}
@@ -0,0 +1,32 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO de salida de una importacion masiva.
+ *
+ * @param total filas leidas
+ * @param upserted filas insertadas o actualizadas
+ * @param rejected filas rechazadas
+ * @param elapsedMillis duracion de la importacion en milisegundos
+ * @param rowsPerSecond filas procesadas por segundo
+ * @param errors primeras filas rechazadas, hasta el maximo configurado
+ */
+@Schema(name = "ImportResponse", description = "Resultado de la importacion")
+public record ImportResponse(
+    @Schema(description = "Filas leidas", example = "500000")
+    long total,
+    @Schema(description = "Filas insertadas o actualizadas", example = "499990")
+    long upserted,
+    @Schema(description = "Filas rechazadas", example = "10")
+    long rejected,
+    @Schema(description = "Duracion en milisegundos", example = "41250")
+    long elapsedMillis,
+    @Schema(description = "Filas por segundo", example = "12121.2")
+    double rowsPerSecond,
+    @Schema(description = "Detalle de las primeras filas rechazadas")
+    List<ImportRowError> errors
+) {
+}
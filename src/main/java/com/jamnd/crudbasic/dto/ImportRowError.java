@@ -0,0 +1,21 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Detalle de una fila rechazada en una importacion.
+ *
+ * @param line numero de linea en el archivo, inicia en 1
+ * @param sku sku de la fila si se pudo leer
+ * @param message motivo del rechazo
+ */
+@Schema(name = "ImportRowError", description = "Fila rechazada")
+public record ImportRowError(
+    @Schema(description = "Linea del archivo", example = "42")
+    long line,
+    @Schema(description = "SKU de la fila", example = "SKU-1001")
+    String sku,
+    @Schema(description = "Motivo del rechazo", example = "precio: El precio es obligatorio")
+    String message
+) {
+}
@@ -0,0 +1,44 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con estadisticas del limite de conexiones JDBC.
+ *
+ * @param enabled indica si el limite esta activo
+ * @param permits conexiones simultaneas permitidas
+ * @param available permisos libres en este momento
+ * @param waiting hilos esperando un permiso
+ * @param acquiredCount permisos entregados
+ * @param rejectedCount solicitudes rechazadas por tiempo de espera
+ * @param avgWaitMicros espera promedio en cola en microsegundos
+ * @param maxWaitMicros espera maxima reciente en cola en microsegundos, de los ultimos minutos
+ */
+@Schema(name = "JdbcGateStatsResponse", description = "Estadisticas del limite de conexiones JDBC")
+public record JdbcGateStatsResponse(
+    @Schema(description = "Limite activo", example = "true")
+    boolean enabled,
+    @Schema(description = "Conexiones simultaneas permitidas", example = "10")
+    int permits,
+    @Schema(description = "Permisos libres", example = "4")
+    int available,
+    @Schema(description = "Hilos en espera", example = "0")
+    int waiting,
+    @Schema(description = "Permisos entregados", example = "15230")
+    long acquiredCount,
+    @Schema(description = "Rechazos por tiempo de espera", example = "0")
+    long rejectedCount,
+    @Schema(description = "Espera promedio en microsegundos", example = "120")
+    long avgWaitMicros,
+    @Schema(description = "Espera maxima de los ultimos minutos en microsegundos", example = "48000")
+    long maxWaitMicros
+) {
+    /**
+     * Respuesta cuando el limite no esta activo.
+     *
+     * @return estadisticas vacias
+     */
+    public static JdbcGateStatsResponse disabled() {
+        return new JdbcGateStatsResponse(false, 0, 0, 0, 0, 0, 0, 0);
+    }
+}
@@ -2,6 +2,7 @@ package com.jamnd.crudbasic.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -11,8 +12,10 @@ import java.util.List;
  * @param content lista de elementos
  * @param page pagina actual
  * @param size tamano de pagina
- * @param totalElements total de elementos
- * @param totalPages total de paginas
+ * @param totalElements total de elementos, -1 si no se calculo
+ * @param totalPages total de paginas, -1 si no se calculo
+ * @param hasNext indica si existe una pagina siguiente
+ * @param nextCursor cursor para la siguiente pagina en modo cursor
  * @param <T> tipo del contenido
  */
 @Schema(name = "PageResponse", description = "Respuesta paginada")
@@ -23,10 +26,14 @@ public record PageResponse<T>(
     int page,
     @Schema(description = "Tamano de pagina", example = "10")
     int size,
-    @Schema(description = "Total de elementos", example = "57")
+    @Schema(description = "Total de elementos, -1 si no se calculo", example = "57")
     long totalElements,
-    @Schema(description = "Total de paginas", example = "6")
-    int totalPages
+    @Schema(description = "Total de paginas, -1 si no se calculo", example = "6")
+    int totalPages,
+    @Schema(description = "Indica si existe una pagina siguiente", example = "true")
+    boolean hasNext,
+    @Schema(description = "Cursor opaco de la siguiente pagina, null si no hay mas", example = "eyJzb3J0Ijoi...")
+    String nextCursor
 ) {
     /**
      * Construye una respuesta de pagina a partir de Page.
@@ -41,7 +48,58 @@ public record PageResponse<T>(
             pageSource.getNumber(),
             pageSource.getSize(),
             pageSource.getTotalElements(),
-            pageSource.getTotalPages()
+            pageSource.getTotalPages(),
+            pageSource.hasNext(),
+            null
         );
     }
+
+    /**
+     * Construye una respuesta a partir de Slice, con un total opcional.
+     *
+     * @param sliceSource porcion origen
+     * @param totalElements total conocido o estimado, -1 si no se calculo
+     * @return respuesta lista para API
+     * @param <T> tipo del contenido
+     */
+    public static <T> PageResponse<T> fromSlice(Slice<T> sliceSource, long totalElements) {
+        return new PageResponse<>(
+            sliceSource.getContent(),
+            sliceSource.getNumber(),
+            sliceSource.getSize(),
+            totalElements,
+            countPages(totalElements, sliceSource.getSize()),
+            sliceSource.hasNext(),
+            null
+        );
+    }
+
+    /**
+     * Construye una respuesta en modo cursor.
+     *
+     * @param content contenido de la pagina
+     * @param size tamano de pagina
+     * @param totalElements total conocido o estimado, -1 si no se calculo
+     * @param nextCursor cursor de la siguiente pagina
+     * @return respuesta lista para API
+     * @param <T> tipo del contenido
+     */
+    public static <T> PageResponse<T> fromCursor(List<T> content, int size, long totalElements, String nextCursor) {
+        return new PageResponse<>(
+            content,
+            0,
+            size,
+            totalElements,
+            countPages(totalElements, size),
+            nextCursor != null,
+            nextCursor
+        );
+    }
+
+    private static int countPages(long totalElements, int size) {
+        if (totalElements < 0) {
+            return -1;
+        }
+        return (int) Math.ceil((double) totalElements / size);
+    }
 }
@@ -0,0 +1,23 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con la cantidad de productos en un rango de precio.
+ *
+ * @param desde limite inferior incluido, null si no tiene
+ * @param hasta limite superior excluido, null si no tiene
+ * @param total productos en el rango
+ */
+@Schema(name = "PrecioFacet", description = "Cantidad de productos por rango de precio")
+public record PrecioFacet(
+    @Schema(description = "Limite inferior incluido", example = "50.00")
+    BigDecimal desde,
+    @Schema(description = "Limite superior excluido", example = "100.00")
+    BigDecimal hasta,
+    @Schema(description = "Productos en el rango", example = "17")
+    long total
+) {
+}
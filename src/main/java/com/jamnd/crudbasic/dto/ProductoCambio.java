@@ -0,0 +1,50 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con un cambio de producto del feed de cambios.
+ *
+ * @param tipo alta o modificacion, o baja
+ * @param id id del producto
+ * @param sku sku del producto
+ * @param changedAt fecha del cambio
+ * @param producto estado actual del producto, null en bajas
+ */
+@Schema(name = "ProductoCambio", description = "Cambio de un producto")
+public record ProductoCambio(
+    @Schema(description = "UPSERT si el producto se creo o modifico, DELETE si se elimino", example = "UPSERT")
+    TipoCambio tipo,
+    @Schema(description = "Id del producto", example = "1")
+    Long id,
+    @Schema(description = "SKU del producto", example = "SKU-1001")
+    String sku,
+    @Schema(description = "Fecha del cambio", example = "2026-02-21T12:00:00")
+    LocalDateTime changedAt,
+    @Schema(description = "Producto actual, null en bajas")
+    ProductoResponse producto
+) {
+    /**
+     * Cambio de alta o modificacion.
+     *
+     * @param producto estado actual del producto
+     * @return cambio UPSERT
+     */
+    public static ProductoCambio upsert(ProductoResponse producto) {
+        return new ProductoCambio(TipoCambio.UPSERT, producto.id(), producto.sku(), producto.updatedAt(), producto);
+    }
+
+    /**
+     * Cambio de baja.
+     *
+     * @param id id del producto eliminado
+     * @param sku sku del producto eliminado
+     * @param deletedAt fecha de la baja
+     * @return cambio DELETE
+     */
+    public static ProductoCambio delete(Long id, String sku, LocalDateTime deletedAt) {
+        return new ProductoCambio(TipoCambio.DELETE, id, sku, deletedAt, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.jamnd.crudbasic.dto;
+
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Criterios opcionales para listar productos. Un criterio null no restringe.
+ *
+ * @param nombre texto contenido en el nombre, sin distinguir mayusculas
+ * @param categoria categoria exacta
+ * @param activo estado activo
+ * @param precioMin precio minimo, inclusive
+ * @param precioMax precio maximo, inclusive
+ * @param stockMin stock minimo, inclusive
+ */
+public record ProductoFilter(
+    String nombre,
+    String categoria,
+    Boolean activo,
+    BigDecimal precioMin,
+    BigDecimal precioMax,
+    Integer stockMin
+) {
+
+    /**
+     * Normaliza los textos vacios a null.
+     */
+    public ProductoFilter {
+        nombre = StringUtils.hasText(nombre) ? nombre : null;
+        categoria = StringUtils.hasText(categoria) ? categoria : null;
+    }
+
+    /**
+     * Filtro solo por nombre.
+     *
+     * @param nombre texto contenido en el nombre
+     * @return filtro
+     */
+    public static ProductoFilter porNombre(String nombre) {
+        return new ProductoFilter(nombre, null, null, null, null, null);
+    }
+
+    /**
+     * Indica si ningun criterio restringe el listado.
+     *
+     * @return true si el filtro no tiene criterios
+     */
+    public boolean isEmpty() {
+        return nombre == null && categoria == null && activo == null
+            && precioMin == null && precioMax == null && stockMin == null;
+    }
+
+    /**
+     * Devuelve el filtro con el nombre en minusculas y los precios sin ceros de escala,
+     * para que filtros equivalentes compartan clave de cache.
+     *
+     * @return filtro normalizado
+     */
+    public ProductoFilter normalized() {
+        return new ProductoFilter(
+            nombre == null ? null : nombre.toLowerCase(Locale.ROOT),
+            categoria,
+            activo,
+            precioMin == null ? null : precioMin.stripTrailingZeros(),
+            precioMax == null ? null : precioMax.stripTrailingZeros(),
+            stockMin
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de entrada para actualizar parcialmente un producto.
+ * Los campos nulos o ausentes no se modifican.
+ *
+ * @param sku codigo unico del producto
+ * @param nombre nombre del producto
+ * @param descripcion descripcion del producto
+ * @param precio precio unitario
+ * @param stock stock disponible
+ * @param categoria categoria del producto
+ * @param activo indica si el producto esta activo
+ */
+@Schema(name = "ProductoPatchRequest", description = "Campos a modificar de un producto, los ausentes no cambian")
+public record ProductoPatchRequest(
+    @Schema(description = "SKU unico del producto", example = "SKU-1001")
+    @Pattern(regexp = ".*\\S.*", message = "El sku no puede estar vacio")
+    String sku,
+
+    @Schema(description = "Nombre del producto", example = "Teclado mecanico")
+    @Pattern(regexp = ".*\\S.*", message = "El nombre no puede estar vacio")
+    String nombre,
+
+    @Schema(description = "Descripcion del producto", example = "Teclado para oficina")
+    String descripcion,
+
+    @Schema(description = "Precio del producto", example = "129.90")
+    @DecimalMin(value = "0.0", inclusive = false, message = "El precio debe ser mayor a cero")
+    BigDecimal precio,
+
+    @Schema(description = "Stock disponible", example = "10")
+    @Min(value = 0, message = "El stock no puede ser negativo")
+    Integer stock,
+
+    @Schema(description = "Categoria del producto", example = "Perifericos")
+    String categoria,
+
+    @Schema(description = "Estado del producto", example = "true")
+    Boolean activo
+) {
+}
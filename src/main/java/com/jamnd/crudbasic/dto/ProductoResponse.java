@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO de salida para exponer datos de un producto.
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
  * @param activo estado del producto
  * @param createdAt fecha de creacion
  * @param updatedAt fecha de actualizacion
+ * @param version version para bloqueo optimista, base del ETag
  */
 @Schema(name = "ProductoResponse", description = "Datos del producto")
 public record ProductoResponse(
@@ -40,6 +42,15 @@ public record ProductoResponse(
     @Schema(description = "Fecha de creacion", example = "2026-02-21T12:00:00")
     LocalDateTime createdAt,
     @Schema(description = "Fecha de actualizacion", example = "2026-02-21T12:00:00")
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    @Schema(description = "Version del producto, cambia en cada actualizacion", example = "3")
+    Long version
 ) {
+    /**
+     * Propiedades del DTO en el orden de su constructor, usadas para proyecciones y el parametro fields.
+     */
+    public static final List<String> FIELDS = List.of(
+        "id", "sku", "nombre", "descripcion", "precio", "stock", "categoria", "activo", "createdAt", "updatedAt",
+        "version"
+    );
 }
@@ -0,0 +1,70 @@
+package com.jamnd.crudbasic.dto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Campos por los que se puede ordenar el listado de productos.
+ * <p>
+ * Cada campo tiene un indice con {@code id} como desempate, asi el orden se lee del indice en
+ * ambas direcciones y la base nunca ordena la tabla completa.
+ */
+public enum ProductoSortField {
+
+    /**
+     * Fecha de creacion, orden por defecto. Indice {@code idx_productos_created_at} (V11), que incluye
+     * las columnas del listado salvo la descripcion.
+     */
+    CREATED_AT("createdAt"),
+
+    /**
+     * Fecha de cambio. Indice {@code idx_productos_updated_at} (V5).
+     */
+    UPDATED_AT("updatedAt"),
+
+    /**
+     * Nombre. Indice {@code idx_productos_nombre_id} (V11).
+     */
+    NOMBRE("nombre"),
+
+    /**
+     * Precio. Indice {@code idx_productos_precio_id} (V11).
+     */
+    PRECIO("precio"),
+
+    /**
+     * Id. Clave primaria.
+     */
+    ID("id");
+
+    /**
+     * Propiedades aceptadas en el parametro sort, en el orden declarado.
+     */
+    public static final List<String> PROPERTIES = Arrays.stream(values()).map(ProductoSortField::property).toList();
+
+    private final String property;
+
+    ProductoSortField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * Propiedad del producto usada en el parametro sort.
+     *
+     * @return nombre de la propiedad
+     */
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Busca el campo por su propiedad, respetando mayusculas.
+     *
+     * @param property propiedad recibida
+     * @return campo soportado, vacio si no se puede ordenar por esa propiedad
+     */
+    public static Optional<ProductoSortField> fromProperty(String property) {
+        return Arrays.stream(values()).filter(field -> field.property.equals(property)).findFirst();
+    }
+}
@@ -0,0 +1,50 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con estadisticas de las reservas con arriendo local.
+ *
+ * @param enabled indica si el modo esta activo
+ * @param productos productos de alta contencion resueltos
+ * @param leasedUnits unidades arrendadas aun sin reservar
+ * @param pendingUnits devoluciones acumuladas aun no escritas en la base
+ * @param leaseCount arriendos tomados de la fila
+ * @param leaseExhaustedCount reservas rechazadas porque la fila no tenia stock para un nuevo arriendo
+ * @param flushCount escrituras de devoluciones realizadas
+ * @param flushFailures escrituras fallidas, que se reintentan en el siguiente ciclo
+ * @param lastFlushLagMillis antiguedad de la devolucion mas vieja en la ultima escritura
+ * @param maxFlushLagMillis antiguedad maxima observada
+ */
+@Schema(name = "StockLeaseStatsResponse", description = "Estadisticas de reservas con arriendo local")
+public record StockLeaseStatsResponse(
+    @Schema(description = "Modo activo", example = "true")
+    boolean enabled,
+    @Schema(description = "Productos de alta contencion", example = "2")
+    int productos,
+    @Schema(description = "Unidades arrendadas sin reservar", example = "37")
+    long leasedUnits,
+    @Schema(description = "Devoluciones pendientes de escribir", example = "3")
+    long pendingUnits,
+    @Schema(description = "Arriendos tomados de la fila", example = "120")
+    long leaseCount,
+    @Schema(description = "Rechazos por stock agotado en la fila", example = "0")
+    long leaseExhaustedCount,
+    @Schema(description = "Escrituras de devoluciones", example = "58")
+    long flushCount,
+    @Schema(description = "Escrituras fallidas", example = "0")
+    long flushFailures,
+    @Schema(description = "Retraso de la ultima escritura en milisegundos", example = "850")
+    long lastFlushLagMillis,
+    @Schema(description = "Retraso maximo en milisegundos", example = "1200")
+    long maxFlushLagMillis
+) {
+    /**
+     * Respuesta cuando el modo no esta activo.
+     *
+     * @return estadisticas vacias
+     */
+    public static StockLeaseStatsResponse disabled() {
+        return new StockLeaseStatsResponse(false, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+}
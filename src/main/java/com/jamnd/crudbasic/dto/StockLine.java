@@ -0,0 +1,26 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO de entrada con una linea de reserva o liberacion de stock.
+ *
+ * @param id id del producto
+ * @param cantidad unidades a reservar o liberar
+ */
+@Schema(name = "StockLine", description = "Linea de movimiento de stock")
+public record StockLine(
+    @Schema(description = "Id del producto", example = "1")
+    @NotNull(message = "El id es obligatorio")
+    Long id,
+
+    @Schema(description = "Unidades a reservar o liberar", example = "2")
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser mayor a cero")
+    @Max(value = 100_000, message = "La cantidad no puede superar 100000")
+    Integer cantidad
+) {
+}
@@ -0,0 +1,21 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO de salida con el resultado de una linea de stock.
+ *
+ * @param id id del producto
+ * @param cantidad unidades aplicadas, sumando lineas repetidas del mismo producto
+ * @param stock stock restante despues del movimiento
+ */
+@Schema(name = "StockLineResult", description = "Resultado de una linea de stock")
+public record StockLineResult(
+    @Schema(description = "Id del producto", example = "1")
+    Long id,
+    @Schema(description = "Unidades aplicadas", example = "2")
+    int cantidad,
+    @Schema(description = "Stock restante", example = "8")
+    int stock
+) {
+}
@@ -0,0 +1,23 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO de entrada para reservar o liberar stock de varios productos a la vez.
+ *
+ * @param lineas lineas a aplicar, todas o ninguna
+ */
+@Schema(name = "StockRequest", description = "Movimiento de stock de una o varias lineas")
+public record StockRequest(
+    @Schema(description = "Lineas del movimiento")
+    @NotEmpty(message = "Debe enviar al menos una linea")
+    @Size(max = 100, message = "No se permiten mas de 100 lineas")
+    List<@Valid @NotNull(message = "La linea es obligatoria") StockLine> lineas
+) {
+}
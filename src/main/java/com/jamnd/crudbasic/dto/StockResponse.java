@@ -0,0 +1,17 @@
+package com.jamnd.crudbasic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO de salida de una reserva o liberacion de stock.
+ *
+ * @param lineas resultado por producto, ordenado por id
+ */
+@Schema(name = "StockResponse", description = "Resultado del movimiento de stock")
+public record StockResponse(
+    @Schema(description = "Resultado por producto")
+    List<StockLineResult> lineas
+) {
+}
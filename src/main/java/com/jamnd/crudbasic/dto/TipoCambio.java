@@ -0,0 +1,17 @@
+package com.jamnd.crudbasic.dto;
+
+/**
+ * Tipo de cambio informado por el feed de cambios.
+ */
+public enum TipoCambio {
+
+    /**
+     * El producto se creo o modifico; el cambio trae su estado actual.
+     */
+    UPSERT,
+
+    /**
+     * El producto se elimino; el cambio trae solo id y sku.
+     */
+    DELETE
+}
@@ -0,0 +1,22 @@
+package com.jamnd.crudbasic.dto;
+
+/**
+ * Modo de calculo de totales para respuestas paginadas.
+ */
+public enum TotalMode {
+
+    /**
+     * Ejecuta un COUNT exacto.
+     */
+    EXACT,
+
+    /**
+     * Usa estadisticas de PostgreSQL o un conteo cacheado por filtro.
+     */
+    ESTIMATED,
+
+    /**
+     * No calcula totales, solo indica si hay siguiente pagina.
+     */
+    NONE
+}
@@ -5,25 +5,48 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Check;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Entidad que representa un producto de tienda.
+ * <p>
+ * Los indices declarados replican los B-tree de las migraciones para los esquemas generados por
+ * Hibernate (tests). El trigram de nombre (V3) y el parcial de activos (V9) solo existen en Flyway,
+ * y las columnas INCLUDE de {@code idx_productos_created_at} (V11) solo en PostgreSQL.
  */
 @Entity
+@Check(name = "ck_productos_stock_no_negativo", constraints = "stock >= 0")
 @Table(name = "productos", uniqueConstraints = {
     @UniqueConstraint(name = "uk_productos_sku", columnNames = "sku")
+}, indexes = {
+    @Index(name = "idx_productos_updated_at", columnList = "updated_at, id"),
+    @Index(name = "idx_productos_categoria_activo", columnList = "categoria, activo"),
+    @Index(name = "idx_productos_categoria_precio", columnList = "categoria, precio"),
+    @Index(name = "idx_productos_created_at", columnList = "created_at, id"),
+    @Index(name = "idx_productos_nombre_id", columnList = "nombre, id"),
+    @Index(name = "idx_productos_precio_id", columnList = "precio, id")
 })
 public class Producto {
 
+    /**
+     * Id asignado desde productos_id_seq con optimizador pooled, lo que permite
+     * agrupar INSERTs en batches JDBC. allocationSize debe coincidir con el
+     * INCREMENT BY de la secuencia (migracion V4).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_id_gen")
+    @SequenceGenerator(name = "productos_id_gen", sequenceName = "productos_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100, unique = true)
@@ -53,12 +76,16 @@ public class Producto {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * Define valores por defecto antes de persistir.
      */
     @PrePersist
     public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = currentTimestamp();
         this.createdAt = now;
         this.updatedAt = now;
         if (this.activo == null) {
@@ -71,7 +98,17 @@ public class Producto {
      */
     @PreUpdate
     public void preUpdate() {
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = currentTimestamp();
+    }
+
+    /**
+     * Hora actual con la precision de TIMESTAMP en PostgreSQL (microsegundos), para que el valor
+     * en memoria coincida con el que se lee despues.
+     *
+     * @return fecha y hora actual truncada a microsegundos
+     */
+    public static LocalDateTime currentTimestamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     public Long getId() {
@@ -153,4 +190,12 @@ public class Producto {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
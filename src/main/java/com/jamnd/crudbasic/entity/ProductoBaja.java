@@ -0,0 +1,80 @@
+package com.jamnd.crudbasic.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un producto eliminado, para que el feed de cambios informe la baja.
+ * <p>
+ * Usa el id del producto como clave: los ids no se reutilizan y un producto se elimina una sola vez.
+ */
+@Entity
+@Table(name = "productos_bajas", indexes = {
+    @Index(name = "idx_productos_bajas_deleted_at", columnList = "deleted_at, id")
+})
+public class ProductoBaja implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String sku;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    /**
+     * El id viene asignado: sin esta marca save() consultaria la fila antes de insertarla.
+     */
+    @Transient
+    private boolean nuevo = true;
+
+    protected ProductoBaja() {
+    }
+
+    /**
+     * Crea la baja de un producto.
+     *
+     * @param id id del producto eliminado
+     * @param sku sku del producto eliminado
+     * @param deletedAt fecha de la baja
+     */
+    public ProductoBaja(Long id, String sku, LocalDateTime deletedAt) {
+        this.id = id;
+        this.sku = sku;
+        this.deletedAt = deletedAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nuevo = false;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
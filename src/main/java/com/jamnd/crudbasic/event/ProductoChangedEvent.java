@@ -0,0 +1,90 @@
+package com.jamnd.crudbasic.event;
+
+import com.jamnd.crudbasic.dto.ProductoResponse;
+
+/**
+ * Evento publicado dentro de la transaccion que modifica productos.
+ * Los listeners lo reciben con {@code @TransactionalEventListener} para actuar despues del commit.
+ *
+ * @param tipo tipo de cambio
+ * @param id id del producto, null en cambios masivos
+ * @param antes estado previo, null si el producto es nuevo o el estado previo no se leyo
+ * @param despues estado resultante, null si el producto se elimino
+ */
+public record ProductoChangedEvent(Tipo tipo, Long id, ProductoResponse antes, ProductoResponse despues) {
+
+    /**
+     * Tipo de cambio.
+     */
+    public enum Tipo {
+        CREATED,
+        UPDATED,
+        DELETED,
+        BULK
+    }
+
+    /**
+     * Producto creado.
+     *
+     * @param despues producto creado
+     * @return evento de alta
+     */
+    public static ProductoChangedEvent created(ProductoResponse despues) {
+        return new ProductoChangedEvent(Tipo.CREATED, despues.id(), null, despues);
+    }
+
+    /**
+     * Producto actualizado.
+     *
+     * @param antes estado previo, null si no se leyo
+     * @param despues estado actualizado
+     * @return evento de actualizacion
+     */
+    public static ProductoChangedEvent updated(ProductoResponse antes, ProductoResponse despues) {
+        return new ProductoChangedEvent(Tipo.UPDATED, despues.id(), antes, despues);
+    }
+
+    /**
+     * Stock movido por una reserva, devolucion o arriendo. Solo cambian stock, version y fecha, asi que
+     * el estado previo se deriva del resultante sin leer la fila.
+     *
+     * @param despues estado resultante
+     * @param delta unidades sumadas al stock, negativo en reservas
+     * @return evento de actualizacion
+     */
+    public static ProductoChangedEvent stock(ProductoResponse despues, int delta) {
+        ProductoResponse antes = new ProductoResponse(
+            despues.id(),
+            despues.sku(),
+            despues.nombre(),
+            despues.descripcion(),
+            despues.precio(),
+            despues.stock() - delta,
+            despues.categoria(),
+            despues.activo(),
+            despues.createdAt(),
+            despues.updatedAt(),
+            despues.version() - 1
+        );
+        return updated(antes, despues);
+    }
+
+    /**
+     * Producto eliminado.
+     *
+     * @param antes estado previo a la eliminacion
+     * @return evento de baja
+     */
+    public static ProductoChangedEvent deleted(ProductoResponse antes) {
+        return new ProductoChangedEvent(Tipo.DELETED, antes.id(), antes, null);
+    }
+
+    /**
+     * Varios productos cambiaron (lote o importacion).
+     *
+     * @return evento masivo
+     */
+    public static ProductoChangedEvent bulk() {
+        return new ProductoChangedEvent(Tipo.BULK, null, null, null);
+    }
+}
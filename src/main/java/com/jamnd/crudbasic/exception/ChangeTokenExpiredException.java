@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para tokens del feed de cambios anteriores a la retencion de bajas.
+ */
+public class ChangeTokenExpiredException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public ChangeTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -1,25 +1,41 @@
 package com.jamnd.crudbasic.exception;
 
+import com.jamnd.crudbasic.config.MetricsConfig;
 import com.jamnd.crudbasic.dto.ApiErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
 /**
  * Manejo global de errores para la API.
+ * <p>
+ * Cada rama incrementa el contador {@code api.errors} con los tags {@code exception} y {@code status}.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Maneja errores de recurso no encontrado.
      *
@@ -32,7 +48,12 @@ public class GlobalExceptionHandler {
         ResourceNotFoundException ex,
         HttpServletRequest request
     ) {
-        return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
+        return buildResponse(
+            ResourceNotFoundException.class,
+            HttpStatus.NOT_FOUND,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
     }
 
     /**
@@ -47,7 +68,232 @@ public class GlobalExceptionHandler {
         DuplicateSkuException ex,
         HttpServletRequest request
     ) {
-        return buildResponse(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
+        return buildResponse(
+            DuplicateSkuException.class,
+            HttpStatus.CONFLICT,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja reservas que superan el stock disponible.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 409
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ApiErrorResponse> handleInsufficientStock(
+        InsufficientStockException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            InsufficientStockException.class,
+            HttpStatus.CONFLICT,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja actualizaciones con una version (If-Match) que ya no es la vigente.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 412
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleVersionConflict(
+        VersionConflictException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            VersionConflictException.class,
+            HttpStatus.PRECONDITION_FAILED,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja conflictos de bloqueo optimista detectados por Hibernate al guardar.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 412
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleOptimisticLocking(
+        ObjectOptimisticLockingFailureException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            ObjectOptimisticLockingFailureException.class,
+            HttpStatus.PRECONDITION_FAILED,
+            "El producto fue modificado por otra solicitud",
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja errores de cursor de paginacion invalido.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 400
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidCursor(
+        InvalidCursorException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            InvalidCursorException.class,
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja tokens del feed de cambios invalidos.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 400
+     */
+    @ExceptionHandler(InvalidChangeTokenException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidChangeToken(
+        InvalidChangeTokenException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            InvalidChangeTokenException.class,
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja tokens del feed de cambios anteriores a la retencion de bajas.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 410
+     */
+    @ExceptionHandler(ChangeTokenExpiredException.class)
+    public ResponseEntity<ApiErrorResponse> handleChangeTokenExpired(
+        ChangeTokenExpiredException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            ChangeTokenExpiredException.class,
+            HttpStatus.GONE,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja suscripciones al stream por encima del maximo.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 503
+     */
+    @ExceptionHandler(StreamLimitException.class)
+    public ResponseEntity<ApiErrorResponse> handleStreamLimit(
+        StreamLimitException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            StreamLimitException.class,
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja criterios de filtro invalidos.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 400
+     */
+    @ExceptionHandler(InvalidFilterException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidFilter(
+        InvalidFilterException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            InvalidFilterException.class,
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja ordenes no soportados.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 400
+     */
+    @ExceptionHandler(InvalidSortException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidSort(
+        InvalidSortException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            InvalidSortException.class,
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja campos de proyeccion invalidos.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 400
+     */
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidFields(
+        InvalidFieldsException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            InvalidFieldsException.class,
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja archivos de importacion invalidos.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 400
+     */
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidImportFile(
+        InvalidImportFileException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            InvalidImportFileException.class,
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
     }
 
     /**
@@ -65,7 +311,12 @@ public class GlobalExceptionHandler {
         String message = ex.getBindingResult().getFieldErrors().stream()
             .map(this::formatFieldError)
             .collect(Collectors.joining("; "));
-        return buildResponse(HttpStatus.BAD_REQUEST, message, request.getRequestURI());
+        return buildResponse(
+            MethodArgumentNotValidException.class,
+            HttpStatus.BAD_REQUEST,
+            message,
+            request.getRequestURI()
+        );
     }
 
     /**
@@ -80,7 +331,33 @@ public class GlobalExceptionHandler {
         ConstraintViolationException ex,
         HttpServletRequest request
     ) {
-        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+        return buildResponse(
+            ConstraintViolationException.class,
+            HttpStatus.BAD_REQUEST,
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja parametros con valor de tipo invalido.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 400
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleTypeMismatch(
+        MethodArgumentTypeMismatchException ex,
+        HttpServletRequest request
+    ) {
+        String message = "Valor invalido para el parametro " + ex.getName() + ": " + ex.getValue();
+        return buildResponse(
+            MethodArgumentTypeMismatchException.class,
+            HttpStatus.BAD_REQUEST,
+            message,
+            request.getRequestURI()
+        );
     }
 
     /**
@@ -95,7 +372,32 @@ public class GlobalExceptionHandler {
         DataIntegrityViolationException ex,
         HttpServletRequest request
     ) {
-        return buildResponse(HttpStatus.CONFLICT, "Conflicto de datos en la base de datos", request.getRequestURI());
+        return buildResponse(
+            DataIntegrityViolationException.class,
+            HttpStatus.CONFLICT,
+            "Conflicto de datos en la base de datos",
+            request.getRequestURI()
+        );
+    }
+
+    /**
+     * Maneja la falta de conexiones disponibles al iniciar una transaccion.
+     *
+     * @param ex excepcion lanzada
+     * @param request solicitud HTTP
+     * @return respuesta de error 503
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ApiErrorResponse> handleCannotCreateTransaction(
+        CannotCreateTransactionException ex,
+        HttpServletRequest request
+    ) {
+        return buildResponse(
+            CannotCreateTransactionException.class,
+            HttpStatus.SERVICE_UNAVAILABLE,
+            "Base de datos ocupada, reintente",
+            request.getRequestURI()
+        );
     }
 
     /**
@@ -110,14 +412,35 @@ public class GlobalExceptionHandler {
         Exception ex,
         HttpServletRequest request
     ) {
-        return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor", request.getRequestURI());
+        return buildResponse(
+            Exception.class,
+            HttpStatus.INTERNAL_SERVER_ERROR,
+            "Error interno del servidor",
+            request.getRequestURI()
+        );
     }
 
     private String formatFieldError(FieldError fieldError) {
         return fieldError.getField() + ": " + fieldError.getDefaultMessage();
     }
 
-    private ResponseEntity<ApiErrorResponse> buildResponse(HttpStatus status, String message, String path) {
+    /**
+     * Los errores siempre se responden en JSON, sin importar el Accept: ni el stream SSE
+     * (text/event-stream) ni los formatos binarios del listado (protobuf solo admite productos y
+     * paginas) tienen conversor para {@link ApiErrorResponse}, y sin esto el error terminaria en 500.
+     */
+    private ResponseEntity<ApiErrorResponse> buildResponse(
+        Class<? extends Exception> handled,
+        HttpStatus status,
+        String message,
+        String path
+    ) {
+        meterRegistry.ifAvailable(registry -> Counter.builder(MetricsConfig.API_ERRORS)
+            .description("Errores respondidos por rama del manejador global")
+            .tag("exception", handled.getSimpleName())
+            .tag("status", String.valueOf(status.value()))
+            .register(registry)
+            .increment());
         ApiErrorResponse body = new ApiErrorResponse(
             LocalDateTime.now(),
             status.value(),
@@ -125,6 +448,6 @@ public class GlobalExceptionHandler {
             message,
             path
         );
-        return ResponseEntity.status(status).body(body);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para reservas que superan el stock disponible.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
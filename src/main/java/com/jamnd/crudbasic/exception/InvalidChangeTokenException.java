@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para tokens del feed de cambios invalidos.
+ */
+public class InvalidChangeTokenException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public InvalidChangeTokenException(String message) {
+        super(message);
+    }
+}
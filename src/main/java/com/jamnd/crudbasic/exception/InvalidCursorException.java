@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para cursores de paginacion invalidos.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para campos de proyeccion invalidos.
+ */
+public class InvalidFieldsException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para criterios de filtro invalidos.
+ */
+public class InvalidFilterException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public InvalidFilterException(String message) {
+        super(message);
+    }
+}
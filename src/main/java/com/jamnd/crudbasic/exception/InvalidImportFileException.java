@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para archivos de importacion que no se pueden procesar.
+ */
+public class InvalidImportFileException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para ordenes no soportados en el listado.
+ */
+public class InvalidSortException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public InvalidSortException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para suscripciones al stream rechazadas por exceder el maximo de suscriptores.
+ */
+public class StreamLimitException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public StreamLimitException(String message) {
+        super(message);
+    }
+}
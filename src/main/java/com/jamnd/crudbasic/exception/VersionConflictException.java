@@ -0,0 +1,16 @@
+package com.jamnd.crudbasic.exception;
+
+/**
+ * Excepcion para productos modificados por otra solicitud (version distinta a la esperada).
+ */
+public class VersionConflictException extends RuntimeException {
+
+    /**
+     * Crea la excepcion con mensaje.
+     *
+     * @param message detalle del error
+     */
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
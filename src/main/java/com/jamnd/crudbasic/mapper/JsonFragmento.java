@@ -0,0 +1,112 @@
+package com.jamnd.crudbasic.mapper;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * JSON UTF-8 de un producto, valido mientras la fila conserve la misma version y fecha de cambio.
+ * <p>
+ * Se escribe como valor crudo: el generador copia los bytes a su buffer sin volver a codificarlos.
+ * Las variantes entre comillas no se usan en ese camino y se resuelven con {@link SerializedString}.
+ */
+final class JsonFragmento implements SerializableString {
+
+    private final Long version;
+    private final LocalDateTime updatedAt;
+    private final byte[] json;
+
+    JsonFragmento(Long version, LocalDateTime updatedAt, byte[] json) {
+        this.version = version;
+        this.updatedAt = updatedAt;
+        this.json = json;
+    }
+
+    boolean corresponde(Long version, LocalDateTime updatedAt) {
+        return Objects.equals(this.version, version) && Objects.equals(this.updatedAt, updatedAt);
+    }
+
+    int size() {
+        return json.length;
+    }
+
+    @Override
+    public String getValue() {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+        return new SerializedString(getValue()).asQuotedChars();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        return json;
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        return new SerializedString(getValue()).asQuotedUTF8();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+        return new SerializedString(getValue()).appendQuotedUTF8(buffer, offset);
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+        return new SerializedString(getValue()).appendQuoted(buffer, offset);
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        if (offset + json.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(json, 0, buffer, offset, json.length);
+        return json.length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        return new SerializedString(getValue()).appendUnquoted(buffer, offset);
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        return new SerializedString(getValue()).writeQuotedUTF8(out);
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(json);
+        return json.length;
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) {
+        return new SerializedString(getValue()).putQuotedUTF8(buffer);
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        if (json.length > buffer.remaining()) {
+            return -1;
+        }
+        buffer.put(json);
+        return json.length;
+    }
+}
@@ -0,0 +1,132 @@
+package com.jamnd.crudbasic.mapper;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cache del JSON UTF-8 de cada producto, para armar listados y respuestas sin volver a serializarlo.
+ * <p>
+ * La entrada se guarda por id y solo se usa si coincide con la version y la fecha de cambio de la
+ * fila leida, asi una entrada vieja nunca se entrega aunque el cambio no haya publicado evento
+ * (por ejemplo una reserva de stock). Los cambios confirmados la descartan para liberar memoria.
+ */
+public class ProductoJsonCache implements MeterBinder {
+
+    /**
+     * Nombre de la cache en estadisticas y metricas.
+     */
+    public static final String NOMBRE = "productos-json";
+
+    /**
+     * Bytes estimados de cada entrada ademas del JSON: clave, fragmento y nodo de Caffeine.
+     */
+    private static final int SOBRECARGA = 96;
+
+    private final Cache<Long, JsonFragmento> fragmentos;
+
+    public ProductoJsonCache(DataSize tamanoMaximo) {
+        this.fragmentos = Caffeine.newBuilder()
+            .maximumWeight(tamanoMaximo.toBytes())
+            .weigher((Long id, JsonFragmento fragmento) -> fragmento.size() + SOBRECARGA)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Modulo Jackson que envuelve el serializador de {@link ProductoResponse} para leer y llenar la cache.
+     *
+     * @return modulo Jackson
+     */
+    public Module module() {
+        SimpleModule module = new SimpleModule(NOMBRE);
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(
+                SerializationConfig config,
+                BeanDescription beanDesc,
+                JsonSerializer<?> serializer
+            ) {
+                return beanDesc.getBeanClass() == ProductoResponse.class
+                    ? new ProductoJsonSerializer(serializer, ProductoJsonCache.this)
+                    : serializer;
+            }
+        });
+        return module;
+    }
+
+    /**
+     * Descarta el JSON de los productos cambiados. Un cambio masivo vacia la cache.
+     *
+     * @param event cambio confirmado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onChanged(ProductoChangedEvent event) {
+        if (event.id() == null) {
+            fragmentos.invalidateAll();
+        } else {
+            fragmentos.invalidate(event.id());
+        }
+    }
+
+    /**
+     * Cantidad estimada de productos en cache.
+     *
+     * @return entradas en cache
+     */
+    public long size() {
+        return fragmentos.estimatedSize();
+    }
+
+    /**
+     * Aciertos, fallos y expulsiones acumulados.
+     *
+     * @return estadisticas de la cache
+     */
+    public CacheStats stats() {
+        return fragmentos.stats();
+    }
+
+    /**
+     * Publica las metricas {@code cache.*} con las mismas claves de tags que usa Spring para la cache
+     * de productos ({@code cache}, {@code cache.manager} y {@code name}); Prometheus rechaza un mismo
+     * nombre de metrica con otras claves.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, fragmentos, NOMBRE, Tags.of("cache.manager", NOMBRE, "name", NOMBRE));
+    }
+
+    JsonFragmento get(ProductoResponse producto) {
+        if (producto.id() == null) {
+            return null;
+        }
+        JsonFragmento fragmento = fragmentos.getIfPresent(producto.id());
+        return fragmento != null && fragmento.corresponde(producto.version(), producto.updatedAt())
+            ? fragmento
+            : null;
+    }
+
+    JsonFragmento put(ProductoResponse producto, byte[] json) {
+        JsonFragmento fragmento = new JsonFragmento(producto.version(), producto.updatedAt(), json);
+        if (producto.id() != null) {
+            fragmentos.put(producto.id(), fragmento);
+        }
+        return fragmento;
+    }
+}
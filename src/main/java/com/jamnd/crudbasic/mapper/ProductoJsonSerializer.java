@@ -0,0 +1,81 @@
+package com.jamnd.crudbasic.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.UTF8JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+
+import java.io.IOException;
+
+/**
+ * Escribe un producto copiando su JSON desde {@link ProductoJsonCache}.
+ * <p>
+ * Solo aplica a JSON sin indentacion escrito en bytes, que es lo que usan las respuestas HTTP.
+ * CBOR, Smile, la salida a String y las vistas Jackson usan el serializador original.
+ */
+final class ProductoJsonSerializer extends StdSerializer<ProductoResponse>
+    implements ContextualSerializer, ResolvableSerializer {
+
+    private final JsonSerializer<Object> delegate;
+    private final ProductoJsonCache cache;
+
+    @SuppressWarnings("unchecked")
+    ProductoJsonSerializer(JsonSerializer<?> delegate, ProductoJsonCache cache) {
+        super(ProductoResponse.class);
+        this.delegate = (JsonSerializer<Object>) delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public void serialize(ProductoResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (!(gen instanceof UTF8JsonGenerator) || gen.getPrettyPrinter() != null || gen.getCodec() == null
+            || provider.getActiveView() != null) {
+            delegate.serialize(value, gen, provider);
+            return;
+        }
+        JsonFragmento fragmento = cache.get(value);
+        if (fragmento == null) {
+            ByteArrayBuilder buffer = new ByteArrayBuilder();
+            try (JsonGenerator json = gen.getCodec().getFactory().createGenerator(buffer)) {
+                delegate.serialize(value, json, provider);
+            }
+            fragmento = cache.put(value, buffer.toByteArray());
+        }
+        gen.writeRawValue(fragmento);
+    }
+
+    @Override
+    public void serializeWithType(
+        ProductoResponse value,
+        JsonGenerator gen,
+        SerializerProvider provider,
+        TypeSerializer typeSer
+    ) throws IOException {
+        delegate.serializeWithType(value, gen, provider, typeSer);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+        throws JsonMappingException {
+        if (!(delegate instanceof ContextualSerializer contextual)) {
+            return this;
+        }
+        JsonSerializer<?> contextualizado = contextual.createContextual(provider, property);
+        return contextualizado == delegate ? this : new ProductoJsonSerializer(contextualizado, cache);
+    }
+}
@@ -62,7 +62,8 @@ public class ProductoMapper {
             entity.getCategoria(),
             entity.getActivo(),
             entity.getCreatedAt(),
-            entity.getUpdatedAt()
+            entity.getUpdatedAt(),
+            entity.getVersion()
         );
     }
 }
@@ -0,0 +1,160 @@
+package com.jamnd.crudbasic.mapper;
+
+import com.google.protobuf.CodedOutputStream;
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Codifica productos segun {@code proto/productos.proto} sin clases generadas.
+ * <p>
+ * Escribe los campos directamente con {@link CodedOutputStream}, asi el servidor no depende de
+ * protoc y los clientes siguen pudiendo generar sus clases desde el esquema publicado.
+ */
+public final class ProductoProtobuf {
+
+    /**
+     * Media type de la representacion Protobuf.
+     */
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    private static final int PAGE_CONTENT = 1;
+    private static final int PAGE_PAGE = 2;
+    private static final int PAGE_SIZE = 3;
+    private static final int PAGE_TOTAL_ELEMENTS = 4;
+    private static final int PAGE_TOTAL_PAGES = 5;
+    private static final int PAGE_HAS_NEXT = 6;
+    private static final int PAGE_NEXT_CURSOR = 7;
+
+    private ProductoProtobuf() {
+    }
+
+    /**
+     * Codifica un mensaje {@code Producto}.
+     *
+     * @param producto producto a codificar
+     * @return bytes del mensaje
+     */
+    public static byte[] encode(ProductoResponse producto) {
+        return encode(out -> writeProducto(out, producto));
+    }
+
+    /**
+     * Codifica un mensaje {@code ProductoPage}. El contenido puede ser {@link ProductoResponse}
+     * o filas parciales del parametro fields.
+     *
+     * @param page pagina a codificar
+     * @return bytes del mensaje
+     */
+    public static byte[] encode(PageResponse<?> page) {
+        return encode(out -> {
+            for (Object item : page.content()) {
+                out.writeByteArray(PAGE_CONTENT, item instanceof ProductoResponse producto
+                    ? encode(producto)
+                    : encode(fila(item)));
+            }
+            out.writeInt32(PAGE_PAGE, page.page());
+            out.writeInt32(PAGE_SIZE, page.size());
+            out.writeInt64(PAGE_TOTAL_ELEMENTS, page.totalElements());
+            out.writeInt32(PAGE_TOTAL_PAGES, page.totalPages());
+            out.writeBool(PAGE_HAS_NEXT, page.hasNext());
+            if (page.nextCursor() != null) {
+                out.writeString(PAGE_NEXT_CURSOR, page.nextCursor());
+            }
+        });
+    }
+
+    /**
+     * Escribe un {@code Producto} precedido por su largo, como {@code writeDelimitedTo}.
+     *
+     * @param producto producto a escribir
+     * @param output flujo de salida
+     * @throws IOException si falla la escritura
+     */
+    public static void writeDelimited(ProductoResponse producto, OutputStream output) throws IOException {
+        byte[] message = encode(producto);
+        CodedOutputStream out = CodedOutputStream.newInstance(output, CodedOutputStream.computeUInt32SizeNoTag(
+            message.length) + message.length);
+        out.writeUInt32NoTag(message.length);
+        out.writeRawBytes(message);
+        out.flush();
+    }
+
+    private static byte[] encode(Map<?, ?> fila) {
+        return encode(out -> {
+            for (Map.Entry<?, ?> entry : fila.entrySet()) {
+                writeField(out, String.valueOf(entry.getKey()), entry.getValue());
+            }
+        });
+    }
+
+    private static void writeProducto(CodedOutputStream out, ProductoResponse producto) throws IOException {
+        writeField(out, "id", producto.id());
+        writeField(out, "sku", producto.sku());
+        writeField(out, "nombre", producto.nombre());
+        writeField(out, "descripcion", producto.descripcion());
+        writeField(out, "precio", producto.precio());
+        writeField(out, "stock", producto.stock());
+        writeField(out, "categoria", producto.categoria());
+        writeField(out, "activo", producto.activo());
+        writeField(out, "createdAt", producto.createdAt());
+        writeField(out, "updatedAt", producto.updatedAt());
+        writeField(out, "version", producto.version());
+    }
+
+    private static void writeField(CodedOutputStream out, String property, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        switch (property) {
+            case "id" -> out.writeInt64(1, ((Number) value).longValue());
+            case "sku" -> out.writeString(2, (String) value);
+            case "nombre" -> out.writeString(3, (String) value);
+            case "descripcion" -> out.writeString(4, (String) value);
+            case "precio" -> out.writeString(5, ((BigDecimal) value).toPlainString());
+            case "stock" -> out.writeInt32(6, ((Number) value).intValue());
+            case "categoria" -> out.writeString(7, (String) value);
+            case "activo" -> out.writeBool(8, (Boolean) value);
+            case "createdAt" -> out.writeInt64(9, micros((LocalDateTime) value));
+            case "updatedAt" -> out.writeInt64(10, micros((LocalDateTime) value));
+            case "version" -> out.writeInt64(11, ((Number) value).longValue());
+            default -> throw new IllegalArgumentException("Propiedad sin campo Protobuf: " + property);
+        }
+    }
+
+    private static Map<?, ?> fila(Object item) {
+        if (item instanceof Map<?, ?> map) {
+            return map;
+        }
+        throw new IllegalArgumentException("Contenido sin representacion Protobuf: " + item.getClass().getName());
+    }
+
+    private static long micros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static byte[] encode(MessageWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            writer.write(out);
+            out.flush();
+        } catch (IOException ex) {
+            throw new IllegalStateException("No se pudo codificar el mensaje Protobuf", ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface MessageWriter {
+
+        void write(CodedOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,48 @@
+package com.jamnd.crudbasic.repository;
+
+import com.jamnd.crudbasic.entity.ProductoBaja;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de bajas de productos para el feed de cambios.
+ */
+public interface ProductoBajaRepository extends JpaRepository<ProductoBaja, Long> {
+
+    /**
+     * Obtiene las bajas posteriores a (desde, id) y hasta el limite indicado, en orden de fecha e id.
+     * Recorre el indice (deleted_at, id) de la migracion V10 desde la posicion del token.
+     *
+     * @param desde fecha del ultimo cambio entregado
+     * @param id id del ultimo cambio entregado
+     * @param hasta ultima fecha que se puede entregar
+     * @param limit cantidad maxima de filas
+     * @return bajas ordenadas
+     */
+    @Query("""
+        select b from ProductoBaja b
+        where b.deletedAt >= :desde and (b.deletedAt > :desde or b.id > :id) and b.deletedAt <= :hasta
+        order by b.deletedAt, b.id""")
+    List<ProductoBaja> findCambios(
+        @Param("desde") LocalDateTime desde,
+        @Param("id") long id,
+        @Param("hasta") LocalDateTime hasta,
+        Limit limit
+    );
+
+    /**
+     * Elimina las bajas anteriores a la fecha indicada con un unico DELETE.
+     *
+     * @param limite fecha de corte
+     * @return cantidad de bajas eliminadas
+     */
+    @Modifying
+    @Query("delete from ProductoBaja b where b.deletedAt < :limite")
+    int deleteOlderThan(@Param("limite") LocalDateTime limite);
+}
@@ -1,31 +1,159 @@
 package com.jamnd.crudbasic.repository;
 
+import com.jamnd.crudbasic.dto.CategoriaFacet;
+import com.jamnd.crudbasic.dto.ProductoResponse;
 import com.jamnd.crudbasic.entity.Producto;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para operaciones de persistencia de productos.
  */
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto>,
+    ProductoRepositoryCustom {
 
     /**
-     * Busca productos por nombre con contains e ignore case.
+     * Obtiene un producto proyectado directo a DTO, sin cargar la entidad.
      *
-     * @param nombre texto a buscar
-     * @param pageable datos de paginacion
-     * @return pagina de productos filtrados
+     * @param id identificador del producto
+     * @return producto encontrado
      */
-    Page<Producto> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
+    @Query("""
+        select new com.jamnd.crudbasic.dto.ProductoResponse(
+            p.id, p.sku, p.nombre, p.descripcion, p.precio, p.stock, p.categoria, p.activo, p.createdAt, p.updatedAt,
+            p.version)
+        from Producto p where p.id = :id""")
+    Optional<ProductoResponse> findResponseById(@Param("id") Long id);
 
     /**
-     * Valida si existe un SKU.
+     * Proyecta a DTO los productos indicados.
      *
-     * @param sku sku a validar
-     * @return true si existe
+     * @param ids ids de los productos
+     * @return productos encontrados, sin orden
+     */
+    @Query("""
+        select new com.jamnd.crudbasic.dto.ProductoResponse(
+            p.id, p.sku, p.nombre, p.descripcion, p.precio, p.stock, p.categoria, p.activo, p.createdAt, p.updatedAt,
+            p.version)
+        from Producto p where p.id in :ids""")
+    List<ProductoResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene los productos cambiados despues de (desde, id) y hasta el limite indicado,
+     * en orden de fecha de cambio e id. Recorre el indice (updated_at, id) de la migracion V5
+     * desde la posicion del token y se detiene al completar el limite.
+     *
+     * @param desde fecha del ultimo cambio entregado
+     * @param id id del ultimo cambio entregado
+     * @param hasta ultima fecha que se puede entregar
+     * @param limit cantidad maxima de filas
+     * @return productos ordenados
+     */
+    @Query("""
+        select new com.jamnd.crudbasic.dto.ProductoResponse(
+            p.id, p.sku, p.nombre, p.descripcion, p.precio, p.stock, p.categoria, p.activo, p.createdAt, p.updatedAt,
+            p.version)
+        from Producto p
+        where p.updatedAt >= :desde and (p.updatedAt > :desde or p.id > :id) and p.updatedAt <= :hasta
+        order by p.updatedAt, p.id""")
+    List<ProductoResponse> findCambios(
+        @Param("desde") LocalDateTime desde,
+        @Param("id") long id,
+        @Param("hasta") LocalDateTime hasta,
+        Limit limit
+    );
+
+    /**
+     * Obtiene solo la version actual de un producto.
+     *
+     * @param id identificador del producto
+     * @return version, vacio si el producto no existe
+     */
+    @Query("select p.version from Producto p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Cuenta productos totales y activos por categoria con un GROUP BY
+     * que recorre solo el indice (categoria, activo) de la migracion V8.
+     *
+     * @return conteos por categoria, sin orden
+     */
+    @Query("""
+        select new com.jamnd.crudbasic.dto.CategoriaFacet(
+            p.categoria, count(p), sum(case when p.activo = true then 1L else 0L end))
+        from Producto p
+        group by p.categoria""")
+    List<CategoriaFacet> countByCategoria();
+
+    /**
+     * Obtiene solo el stock actual de un producto.
+     *
+     * @param id identificador del producto
+     * @return stock, vacio si el producto no existe
+     */
+    @Query("select p.stock from Producto p where p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    /**
+     * Obtiene el total estimado de filas segun las estadisticas de PostgreSQL.
+     * Devuelve -1 si la tabla aun no fue analizada.
+     *
+     * @return total estimado
+     */
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = 'productos'::regclass",
+        nativeQuery = true)
+    Long estimateCountFromStatistics();
+
+    /**
+     * Recorre todos los productos ordenados por id con un cursor del servidor.
+     * Debe consumirse dentro de una transaccion y cerrarse al terminar.
+     *
+     * @return flujo de productos
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Producto p order by p.id")
+    Stream<Producto> streamAllByOrderById();
+
+    /**
+     * Obtiene cuales de los SKU indicados ya existen, en una sola consulta IN.
+     *
+     * @param skus skus a validar
+     * @return skus existentes
+     */
+    @Query("select p.sku from Producto p where p.sku in :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    /**
+     * Busca los productos con los SKU indicados.
+     *
+     * @param skus skus a buscar
+     * @return productos encontrados
+     */
+    List<Producto> findBySkuIn(Collection<String> skus);
+
+    /**
+     * Obtiene solo los ids de los productos con los SKU indicados.
+     *
+     * @param skus skus a buscar
+     * @return ids encontrados
      */
-    boolean existsBySku(String sku);
+    @Query("select p.id from Producto p where p.sku in :skus")
+    List<Long> findIdsBySkuIn(@Param("skus") Collection<String> skus);
 
     /**
      * Valida si existe un SKU en un registro distinto.
@@ -0,0 +1,130 @@
+package com.jamnd.crudbasic.repository;
+
+import com.jamnd.crudbasic.dto.CatalogVersion;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.entity.Producto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de lectura que proyectan directo a DTO, sin cargar entidades administradas.
+ */
+public interface ProductoRepositoryCustom {
+
+    /**
+     * Lista productos proyectados a {@link ProductoResponse} sin ejecutar COUNT.
+     *
+     * @param spec filtro a aplicar
+     * @param pageable datos de paginacion
+     * @return porcion de productos
+     */
+    Slice<ProductoResponse> findResponseSlice(Specification<Producto> spec, Pageable pageable);
+
+    /**
+     * Lista solo las columnas indicadas, sin ejecutar COUNT.
+     *
+     * @param spec filtro a aplicar
+     * @param fields propiedades a seleccionar, en el orden de salida
+     * @param pageable datos de paginacion
+     * @return porcion de filas con las propiedades pedidas
+     */
+    Slice<Map<String, Object>> findFieldSlice(Specification<Producto> spec, List<String> fields, Pageable pageable);
+
+    /**
+     * Lista productos proyectados despues de una posicion keyset.
+     * Trae un elemento extra para saber si existe una pagina siguiente.
+     *
+     * @param spec filtro a aplicar
+     * @param sort orden aplicado, el id se agrega como desempate ascendente
+     * @param after valores del ultimo elemento entregado por propiedad, vacio para iniciar
+     * @param limit cantidad maxima de elementos a devolver
+     * @return hasta limit + 1 productos
+     */
+    List<ProductoResponse> findResponsesAfter(
+        Specification<Producto> spec,
+        Sort sort,
+        Map<String, Object> after,
+        int limit
+    );
+
+    /**
+     * Igual que {@link #findResponsesAfter} pero seleccionando solo las columnas indicadas.
+     *
+     * @param spec filtro a aplicar
+     * @param fields propiedades a seleccionar, debe incluir las del orden y el id
+     * @param sort orden aplicado, el id se agrega como desempate ascendente
+     * @param after valores del ultimo elemento entregado por propiedad, vacio para iniciar
+     * @param limit cantidad maxima de elementos a devolver
+     * @return hasta limit + 1 filas
+     */
+    List<Map<String, Object>> findFieldsAfter(
+        Specification<Producto> spec,
+        List<String> fields,
+        Sort sort,
+        Map<String, Object> after,
+        int limit
+    );
+
+    /**
+     * Inserta el producto en una sola sentencia si su SKU no existe
+     * ({@code INSERT ... ON CONFLICT DO NOTHING}).
+     * Asigna id y fechas al producto recibido; no lo deja administrado.
+     *
+     * @param producto producto nuevo
+     * @return true si se inserto, false si el SKU ya existia
+     */
+    boolean insertIfAbsent(Producto producto);
+
+    /**
+     * Actualiza solo las propiedades indicadas con un unico UPDATE, incrementando la version
+     * y la fecha de actualizacion.
+     *
+     * @param id id del producto
+     * @param expectedVersion version esperada, null para no validarla
+     * @param changes valores nuevos por propiedad de {@link Producto}
+     * @return filas actualizadas, 0 si no existe o la version no coincide
+     */
+    int patch(Long id, Long expectedVersion, Map<String, Object> changes);
+
+    /**
+     * Suma el delta al stock con un UPDATE condicional que nunca lo deja negativo,
+     * incrementando la version y la fecha de actualizacion.
+     *
+     * @param id id del producto
+     * @param delta unidades a sumar, negativo para reservar
+     * @return producto resultante, o null si el producto no existe o el stock no alcanza
+     */
+    ProductoResponse addStock(Long id, int delta);
+
+    /**
+     * Suma deltas acumulados al stock de varios productos en un solo batch JDBC.
+     * Pensado para deltas positivos (devoluciones), por lo que no valida el stock resultante.
+     *
+     * @param deltas unidades a sumar por id de producto
+     */
+    void addStockBatch(Map<Long, Integer> deltas);
+
+    /**
+     * Cuenta productos por rango de precio en una sola consulta.
+     * Con limites {@code [a, b]} los rangos son {@code < a}, {@code [a, b)} y {@code >= b}.
+     *
+     * @param limites limites de los rangos, ordenados y sin repetidos
+     * @param soloActivos cuenta solo productos activos
+     * @return cantidad por rango, uno mas que la cantidad de limites
+     */
+    long[] countByPrecio(List<BigDecimal> limites, boolean soloActivos);
+
+    /**
+     * Calcula cantidad y ultima actualizacion del filtro en una sola consulta.
+     *
+     * @param spec filtro a aplicar
+     * @return version del listado
+     */
+    CatalogVersion findVersion(Specification<Producto> spec);
+}
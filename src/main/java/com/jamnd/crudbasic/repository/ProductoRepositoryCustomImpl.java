@@ -0,0 +1,390 @@
+package com.jamnd.crudbasic.repository;
+
+import com.jamnd.crudbasic.dto.CatalogVersion;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.entity.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Implementacion de las consultas de lectura proyectadas.
+ * <p>
+ * Las filas se construyen en la propia consulta ({@code select new ProductoResponse(...)} o tuplas),
+ * por lo que Hibernate no registra entidades en el contexto de persistencia ni guarda snapshots
+ * para dirty checking.
+ */
+class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    private static final String ID = "id";
+
+    private static final String INSERT_IF_ABSENT = """
+        INSERT INTO productos
+            (id, sku, nombre, descripcion, precio, stock, categoria, activo, created_at, updated_at, version)
+        VALUES
+            (:id, :sku, :nombre, :descripcion, :precio, :stock, :categoria, :activo, :createdAt, :updatedAt, 0)
+        """;
+
+    private static final String ADD_STOCK = """
+        UPDATE productos SET stock = stock + :delta, version = version + 1, updated_at = :updatedAt
+        WHERE id = :id AND stock + :delta >= 0""";
+
+    private static final String RESPONSE_COLUMNS =
+        "id, sku, nombre, descripcion, precio, stock, categoria, activo, created_at, updated_at, version";
+
+    private static final String ADD_STOCK_BATCH =
+        "UPDATE productos SET stock = stock + ?, version = version + 1, updated_at = ? WHERE id = ?";
+
+    private final EntityManager entityManager;
+
+    ProductoRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<ProductoResponse> findResponseSlice(Specification<Producto> spec, Pageable pageable) {
+        List<ProductoResponse> rows = responseQuery(spec, pageable.getSort(), Map.of())
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+        return toSlice(rows, pageable);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldSlice(
+        Specification<Producto> spec,
+        List<String> fields,
+        Pageable pageable
+    ) {
+        List<Map<String, Object>> rows = toMaps(fieldQuery(spec, fields, pageable.getSort(), Map.of())
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList(), fields);
+        return toSlice(rows, pageable);
+    }
+
+    @Override
+    public List<ProductoResponse> findResponsesAfter(
+        Specification<Producto> spec,
+        Sort sort,
+        Map<String, Object> after,
+        int limit
+    ) {
+        return responseQuery(spec, withIdTieBreaker(sort), after)
+            .setMaxResults(limit + 1)
+            .getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(
+        Specification<Producto> spec,
+        List<String> fields,
+        Sort sort,
+        Map<String, Object> after,
+        int limit
+    ) {
+        return toMaps(fieldQuery(spec, fields, withIdTieBreaker(sort), after)
+            .setMaxResults(limit + 1)
+            .getResultList(), fields);
+    }
+
+    @Override
+    public boolean insertIfAbsent(Producto producto) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        // El id sale del optimizador pooled de Hibernate, normalmente sin ida a la base.
+        EntityPersister persister = session.getEntityPersister(Producto.class.getName(), producto);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) persister.getGenerator();
+        producto.setId((Long) generator.generate(session, producto, null, EventType.INSERT));
+        producto.prePersist();
+        producto.setVersion(0L);
+        int inserted = entityManager.createNativeQuery(INSERT_IF_ABSENT + onConflictClause(session))
+            .setParameter("id", producto.getId())
+            .setParameter("sku", producto.getSku())
+            .setParameter("nombre", producto.getNombre())
+            .setParameter("descripcion", producto.getDescripcion())
+            .setParameter("precio", producto.getPrecio())
+            .setParameter("stock", producto.getStock())
+            .setParameter("categoria", producto.getCategoria())
+            .setParameter("activo", producto.getActivo())
+            .setParameter("createdAt", producto.getCreatedAt())
+            .setParameter("updatedAt", producto.getUpdatedAt())
+            .executeUpdate();
+        return inserted == 1;
+    }
+
+    @Override
+    public int patch(Long id, Long expectedVersion, Map<String, Object> changes) {
+        StringBuilder jpql = new StringBuilder("update Producto p set p.version = p.version + 1, p.updatedAt = :updatedAt");
+        changes.keySet().forEach(property -> jpql.append(", p.").append(property).append(" = :").append(property));
+        jpql.append(" where p.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" and p.version = :version");
+        }
+        Query query = entityManager.createQuery(jpql.toString())
+            .setParameter("updatedAt", Producto.currentTimestamp())
+            .setParameter("id", id);
+        changes.forEach(query::setParameter);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query.executeUpdate();
+    }
+
+    @Override
+    public ProductoResponse addStock(Long id, int delta) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        // Una sola ida a la base: PostgreSQL devuelve la fila con RETURNING, H2 con FINAL TABLE.
+        String sql = isPostgres(session)
+            ? ADD_STOCK + " RETURNING " + RESPONSE_COLUMNS
+            : "SELECT " + RESPONSE_COLUMNS + " FROM FINAL TABLE (" + ADD_STOCK + ")";
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+            .addScalar("id", StandardBasicTypes.LONG)
+            .addScalar("sku", StandardBasicTypes.STRING)
+            .addScalar("nombre", StandardBasicTypes.STRING)
+            .addScalar("descripcion", StandardBasicTypes.STRING)
+            .addScalar("precio", StandardBasicTypes.BIG_DECIMAL)
+            .addScalar("stock", StandardBasicTypes.INTEGER)
+            .addScalar("categoria", StandardBasicTypes.STRING)
+            .addScalar("activo", StandardBasicTypes.BOOLEAN)
+            .addScalar("created_at", StandardBasicTypes.LOCAL_DATE_TIME)
+            .addScalar("updated_at", StandardBasicTypes.LOCAL_DATE_TIME)
+            .addScalar("version", StandardBasicTypes.LONG);
+        List<?> rows = query
+            .setParameter("delta", delta)
+            .setParameter("updatedAt", Producto.currentTimestamp())
+            .setParameter("id", id)
+            .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = (Object[]) rows.getFirst();
+        return new ProductoResponse(
+            (Long) row[0],
+            (String) row[1],
+            (String) row[2],
+            (String) row[3],
+            (BigDecimal) row[4],
+            (Integer) row[5],
+            (String) row[6],
+            (Boolean) row[7],
+            (LocalDateTime) row[8],
+            (LocalDateTime) row[9],
+            (Long) row[10]
+        );
+    }
+
+    @Override
+    public void addStockBatch(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp updatedAt = Timestamp.valueOf(Producto.currentTimestamp());
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(ADD_STOCK_BATCH)) {
+                for (Map.Entry<Long, Integer> delta : deltas.entrySet()) {
+                    statement.setInt(1, delta.getValue());
+                    statement.setTimestamp(2, updatedAt);
+                    statement.setLong(3, delta.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * PostgreSQL limita el conflicto al SKU; H2 solo acepta la forma sin columnas,
+     * equivalente aqui porque el id es nuevo y el SKU es la unica otra restriccion unica.
+     */
+    private static String onConflictClause(SharedSessionContractImplementor session) {
+        return isPostgres(session) ? "ON CONFLICT (sku) DO NOTHING" : "ON CONFLICT DO NOTHING";
+    }
+
+    private static boolean isPostgres(SharedSessionContractImplementor session) {
+        return session.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Override
+    public CatalogVersion findVersion(Specification<Producto> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Producto> root = query.from(Producto.class);
+        Expression<Long> count = cb.count(root);
+        Expression<LocalDateTime> lastUpdatedAt = cb.greatest(root.<LocalDateTime>get("updatedAt"));
+        query.multiselect(count, lastUpdatedAt);
+        Predicate filter = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            query.where(filter);
+        }
+        Tuple result = entityManager.createQuery(query).getSingleResult();
+        return new CatalogVersion(result.get(count), result.get(lastUpdatedAt));
+    }
+
+    @Override
+    public long[] countByPrecio(List<BigDecimal> limites, boolean soloActivos) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Producto> root = query.from(Producto.class);
+        Path<BigDecimal> precio = root.get("precio");
+        // Una suma condicional por rango: un solo recorrido sin GROUP BY sobre una expresion.
+        List<Expression<Long>> rangos = new ArrayList<>(limites.size() + 1);
+        for (int i = 0; i <= limites.size(); i++) {
+            Predicate desde = i == 0 ? null : cb.greaterThanOrEqualTo(precio, limites.get(i - 1));
+            Predicate hasta = i == limites.size() ? null : cb.lessThan(precio, limites.get(i));
+            Predicate enRango = desde == null ? hasta : hasta == null ? desde : cb.and(desde, hasta);
+            rangos.add(cb.sum(cb.<Long>selectCase().when(enRango, 1L).otherwise(0L)));
+        }
+        query.multiselect(new ArrayList<>(rangos));
+        if (soloActivos) {
+            query.where(cb.isTrue(root.get("activo")));
+        }
+        Tuple result = readOnly(entityManager.createQuery(query)).getSingleResult();
+        long[] counts = new long[rangos.size()];
+        for (int i = 0; i < counts.length; i++) {
+            Long count = result.get(rangos.get(i));
+            counts[i] = count == null ? 0 : count;
+        }
+        return counts;
+    }
+
+    private TypedQuery<ProductoResponse> responseQuery(
+        Specification<Producto> spec,
+        Sort sort,
+        Map<String, Object> after
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductoResponse> query = cb.createQuery(ProductoResponse.class);
+        Root<Producto> root = query.from(Producto.class);
+        Selection<?>[] columns = ProductoResponse.FIELDS.stream().map(root::get).toArray(Selection[]::new);
+        query.select(cb.construct(ProductoResponse.class, columns));
+        applyCriteria(query, root, cb, spec, sort, after);
+        return readOnly(entityManager.createQuery(query));
+    }
+
+    private TypedQuery<Tuple> fieldQuery(
+        Specification<Producto> spec,
+        List<String> fields,
+        Sort sort,
+        Map<String, Object> after
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Producto> root = query.from(Producto.class);
+        query.multiselect(fields.stream().<Selection<?>>map(field -> root.get(field).alias(field)).toList());
+        applyCriteria(query, root, cb, spec, sort, after);
+        return readOnly(entityManager.createQuery(query));
+    }
+
+    private void applyCriteria(
+        CriteriaQuery<?> query,
+        Root<Producto> root,
+        CriteriaBuilder cb,
+        Specification<Producto> spec,
+        Sort sort,
+        Map<String, Object> after
+    ) {
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (!after.isEmpty()) {
+            predicates.add(seekPredicate(root, cb, sort, after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+    }
+
+    /**
+     * Construye el predicado keyset {@code (a > x) OR (a = x AND id > y)} para el orden dado.
+     */
+    private Predicate seekPredicate(Root<Producto> root, CriteriaBuilder cb, Sort sort, Map<String, Object> after) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalsSoFar = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<Comparable<Object>> path = root.get(order.getProperty());
+            Object value = after.get(order.getProperty());
+            BiFunction<Expression<Comparable<Object>>, Comparable<Object>, Predicate> beyond = order.isAscending()
+                ? cb::greaterThan
+                : cb::lessThan;
+            List<Predicate> branch = new ArrayList<>(equalsSoFar);
+            branch.add(beyond.apply(path, asComparable(value)));
+            alternatives.add(cb.and(branch.toArray(Predicate[]::new)));
+            equalsSoFar.add(cb.equal(path, value));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> asComparable(Object value) {
+        return (Comparable<Object>) value;
+    }
+
+    /**
+     * Agrega el id en la direccion del ultimo campo, para que el orden coincida con un indice (campo, id).
+     */
+    private static Sort withIdTieBreaker(Sort sort) {
+        if (sort.getOrderFor(ID) != null) {
+            return sort;
+        }
+        Sort.Direction direction = sort.stream().reduce((first, second) -> second)
+            .map(Sort.Order::getDirection)
+            .orElse(Sort.Direction.ASC);
+        return sort.and(Sort.by(direction, ID));
+    }
+
+    private static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    private static List<Map<String, Object>> toMaps(List<Tuple> tuples, List<String> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static <T> Slice<T> toSlice(List<T> rows, Pageable pageable) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
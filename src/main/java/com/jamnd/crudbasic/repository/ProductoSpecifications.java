@@ -0,0 +1,137 @@
+package com.jamnd.crudbasic.repository;
+
+import com.jamnd.crudbasic.dto.ProductoFilter;
+import com.jamnd.crudbasic.entity.Producto;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Especificaciones reutilizables para consultas dinamicas de productos.
+ * <p>
+ * Cada criterio ausente se reduce a {@code cb.conjunction()}, asi la consulta solo lleva los
+ * predicados pedidos y el planner puede elegir el indice que corresponde a esa combinacion.
+ */
+public final class ProductoSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private ProductoSpecifications() {
+    }
+
+    /**
+     * Filtra por nombre con contains e ignore case.
+     * Si el nombre viene vacio no aplica restriccion.
+     *
+     * @param nombre texto a buscar
+     * @return especificacion de filtro
+     */
+    public static Specification<Producto> nombreContiene(String nombre) {
+        return (root, query, cb) -> {
+            if (!StringUtils.hasText(nombre)) {
+                return cb.conjunction();
+            }
+            return cb.like(cb.lower(root.get("nombre")), containsPattern(nombre), ESCAPE);
+        };
+    }
+
+    /**
+     * Combina todos los criterios del filtro.
+     *
+     * @param filtro criterios del listado
+     * @return especificacion de filtro
+     */
+    public static Specification<Producto> of(ProductoFilter filtro) {
+        return Specification.where(nombreContiene(filtro.nombre()))
+            .and(categoriaIgual(filtro.categoria()))
+            .and(activoIgual(filtro.activo()))
+            .and(precioDesde(filtro.precioMin()))
+            .and(precioHasta(filtro.precioMax()))
+            .and(stockDesde(filtro.stockMin()));
+    }
+
+    /**
+     * Filtra por categoria exacta.
+     *
+     * @param categoria categoria buscada
+     * @return especificacion de filtro
+     */
+    public static Specification<Producto> categoriaIgual(String categoria) {
+        return (root, query, cb) -> categoria == null
+            ? cb.conjunction()
+            : cb.equal(root.get("categoria"), categoria);
+    }
+
+    /**
+     * Filtra por estado activo.
+     *
+     * @param activo estado buscado
+     * @return especificacion de filtro
+     */
+    public static Specification<Producto> activoIgual(Boolean activo) {
+        // Literal y no parametro: el planner solo usa el indice parcial WHERE activo = true si lo ve.
+        return (root, query, cb) -> {
+            if (activo == null) {
+                return cb.conjunction();
+            }
+            return activo ? cb.isTrue(root.get("activo")) : cb.isFalse(root.get("activo"));
+        };
+    }
+
+    /**
+     * Filtra por precio mayor o igual al minimo.
+     *
+     * @param minimo precio minimo
+     * @return especificacion de filtro
+     */
+    public static Specification<Producto> precioDesde(BigDecimal minimo) {
+        return (root, query, cb) -> minimo == null
+            ? cb.conjunction()
+            : cb.greaterThanOrEqualTo(root.get("precio"), minimo);
+    }
+
+    /**
+     * Filtra por precio menor o igual al maximo.
+     *
+     * @param maximo precio maximo
+     * @return especificacion de filtro
+     */
+    public static Specification<Producto> precioHasta(BigDecimal maximo) {
+        return (root, query, cb) -> maximo == null
+            ? cb.conjunction()
+            : cb.lessThanOrEqualTo(root.get("precio"), maximo);
+    }
+
+    /**
+     * Filtra por stock mayor o igual al minimo.
+     *
+     * @param minimo stock minimo
+     * @return especificacion de filtro
+     */
+    public static Specification<Producto> stockDesde(Integer minimo) {
+        return (root, query, cb) -> minimo == null
+            ? cb.conjunction()
+            : cb.greaterThanOrEqualTo(root.get("stock"), minimo);
+    }
+
+    /**
+     * Construye el patron LIKE para buscar un texto contenido, en minusculas
+     * y con los comodines escapados. Se compara contra LOWER(nombre) para
+     * aprovechar el indice trigram.
+     *
+     * @param texto texto a buscar
+     * @return patron LIKE
+     */
+    public static String containsPattern(String texto) {
+        return "%" + escapeLike(texto.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static String escapeLike(String value) {
+        return value
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,72 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.exception.InvalidChangeTokenException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Posicion en el feed de cambios: fecha e id del ultimo cambio entregado.
+ * <p>
+ * Se codifica como {@code micros.id} en Base64 URL. La fecha lleva microsegundos, la precision
+ * de TIMESTAMP en PostgreSQL, para que el token vuelva a la misma fila.
+ *
+ * @param changedAt fecha del ultimo cambio entregado
+ * @param id id del ultimo cambio entregado
+ */
+record CambiosToken(LocalDateTime changedAt, long id) {
+
+    /**
+     * Posicion anterior a cualquier cambio.
+     */
+    static final CambiosToken INICIO = new CambiosToken(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    /**
+     * Posicion despues de todos los cambios con fecha menor o igual a la indicada.
+     *
+     * @param changedAt fecha limite ya entregada
+     * @return token
+     */
+    static CambiosToken hasta(LocalDateTime changedAt) {
+        return new CambiosToken(changedAt, Long.MAX_VALUE);
+    }
+
+    /**
+     * Posicion anterior en el margen indicado, para no saltear transacciones confirmadas despues
+     * del cambio del token pero con fecha anterior. Puede repetir cambios ya entregados.
+     *
+     * @param margen duracion maxima de una transaccion de escritura
+     * @return token retrocedido
+     */
+    CambiosToken retroceder(Duration margen) {
+        return new CambiosToken(changedAt.minus(margen), 0);
+    }
+
+    String encode() {
+        long micros = changedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + changedAt.getNano() / 1_000;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((micros + "." + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static CambiosToken decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = value.indexOf('.');
+            long micros = Long.parseLong(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            LocalDateTime changedAt = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+            return new CambiosToken(changedAt, id);
+        } catch (RuntimeException ex) {
+            throw new InvalidChangeTokenException("Token de cambios invalido");
+        }
+    }
+
+    boolean isAfter(CambiosToken other) {
+        int byDate = changedAt.compareTo(other.changedAt);
+        return byDate > 0 || (byDate == 0 && id > other.id);
+    }
+}
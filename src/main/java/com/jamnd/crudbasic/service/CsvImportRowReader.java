@@ -0,0 +1,183 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.ProductoRequest;
+import com.jamnd.crudbasic.exception.InvalidImportFileException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lee productos en formato CSV (RFC 4180) con encabezado.
+ * <p>
+ * Columnas reconocidas: sku, nombre, descripcion, precio, stock, categoria, activo.
+ * El orden es libre y las columnas desconocidas se ignoran. Los campos entre comillas
+ * pueden contener comas, saltos de linea y comillas dobles escapadas ({@code ""}).
+ */
+class CsvImportRowReader implements ImportRowReader {
+
+    private static final List<String> COLUMNAS =
+        List.of("sku", "nombre", "descripcion", "precio", "stock", "categoria", "activo");
+
+    private final BufferedReader reader;
+    private final StringBuilder field = new StringBuilder();
+    private Map<String, Integer> header;
+    private long line = 1;
+    private long recordLine;
+    private boolean eof;
+
+    CsvImportRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (header == null) {
+            List<String> names = readRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                header.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!header.containsKey("sku")) {
+                throw new InvalidImportFileException(
+                    "El CSV debe tener encabezado con la columna sku. Columnas reconocidas: " + COLUMNAS);
+            }
+        }
+        List<String> values;
+        do {
+            values = readRecord();
+        } while (values != null && values.size() == 1 && values.getFirst().isBlank());
+        if (values == null) {
+            return null;
+        }
+        return toRow(values);
+    }
+
+    private ImportRow toRow(List<String> values) {
+        String sku = value(values, "sku");
+        try {
+            ProductoRequest request = new ProductoRequest(
+                sku,
+                value(values, "nombre"),
+                value(values, "descripcion"),
+                decimal(value(values, "precio")),
+                integer(value(values, "stock")),
+                value(values, "categoria"),
+                bool(value(values, "activo"))
+            );
+            return ImportRow.ok(recordLine, request);
+        } catch (IllegalArgumentException ex) {
+            return ImportRow.failed(recordLine, sku, ex.getMessage());
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = header.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private BigDecimal decimal(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("precio: valor numerico invalido " + value);
+        }
+    }
+
+    private Integer integer(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("stock: valor entero invalido " + value);
+        }
+    }
+
+    private Boolean bool(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1", "si" -> Boolean.TRUE;
+            case "false", "0", "no" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException("activo: valor booleano invalido " + value);
+        };
+    }
+
+    private List<String> readRecord() throws IOException {
+        if (eof) {
+            return null;
+        }
+        recordLine = line;
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int nextChar = reader.read();
+                    if (nextChar == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (nextChar != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                line++;
+                values.add(stripCarriageReturn());
+                return values;
+            } else {
+                field.append(ch);
+            }
+        }
+        eof = true;
+        if (!any) {
+            return null;
+        }
+        values.add(stripCarriageReturn());
+        return values;
+    }
+
+    private String stripCarriageReturn() {
+        int last = field.length() - 1;
+        if (last >= 0 && field.charAt(last) == '\r') {
+            field.setLength(last);
+        }
+        return field.toString();
+    }
+}
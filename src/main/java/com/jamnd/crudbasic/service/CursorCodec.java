@@ -0,0 +1,134 @@
+package com.jamnd.crudbasic.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.exception.InvalidCursorException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Codifica y decodifica cursores opacos para paginacion keyset.
+ * <p>
+ * El cursor guarda el orden usado y los valores del ultimo registro entregado
+ * (campos de orden mas {@code id} como desempate), en JSON codificado en Base64 URL.
+ */
+@Component
+public class CursorCodec {
+
+    private static final String ID = "id";
+
+    private final ObjectMapper objectMapper;
+
+    public CursorCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Genera el cursor que apunta despues del producto indicado.
+     *
+     * @param last ultimo producto de la pagina
+     * @param sort orden aplicado
+     * @return cursor opaco
+     */
+    public String encode(ProductoResponse last, Sort sort) {
+        return encode(property -> readProperty(last, property), sort);
+    }
+
+    /**
+     * Genera el cursor que apunta despues de la fila indicada.
+     * La fila debe contener las propiedades del orden y el id.
+     *
+     * @param last ultima fila de la pagina
+     * @param sort orden aplicado
+     * @return cursor opaco
+     */
+    public String encode(Map<String, Object> last, Sort sort) {
+        return encode(last::get, sort);
+    }
+
+    private String encode(Function<String, Object> valueOf, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            keys.put(order.getProperty(), valueOf.apply(order.getProperty()));
+        }
+        keys.put(ID, valueOf.apply(ID));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Payload(describe(sort), keys));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo generar el cursor", ex);
+        }
+    }
+
+    /**
+     * Convierte un cursor en los valores keyset del ultimo elemento entregado.
+     * Un cursor vacio indica el inicio del recorrido y devuelve un mapa vacio.
+     *
+     * @param cursor cursor recibido
+     * @param sort orden solicitado
+     * @return valores por propiedad, con el id al final
+     */
+    public Map<String, Object> decode(String cursor, Sort sort) {
+        if (!StringUtils.hasText(cursor)) {
+            return Map.of();
+        }
+        Payload payload;
+        try {
+            payload = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), Payload.class);
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new InvalidCursorException("Cursor invalido");
+        }
+        if (payload.keys() == null || !describe(sort).equals(payload.sort())) {
+            throw new InvalidCursorException("El cursor no corresponde al orden solicitado");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            keys.put(order.getProperty(), convert(order.getProperty(), payload.keys()));
+        }
+        keys.put(ID, convert(ID, payload.keys()));
+        return keys;
+    }
+
+    private Object convert(String property, Map<String, Object> raw) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(Producto.class, property);
+        if (descriptor == null || !raw.containsKey(property)) {
+            throw new InvalidCursorException("Cursor invalido");
+        }
+        try {
+            return objectMapper.convertValue(raw.get(property), descriptor.getPropertyType());
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Cursor invalido");
+        }
+    }
+
+    private static Object readProperty(ProductoResponse response, String property) {
+        Method accessor = ReflectionUtils.findMethod(ProductoResponse.class, property);
+        if (accessor == null) {
+            throw new IllegalArgumentException("Propiedad no soportada en cursor: " + property);
+        }
+        return ReflectionUtils.invokeMethod(accessor, response);
+    }
+
+    private String describe(Sort sort) {
+        return sort.stream()
+            .map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase())
+            .collect(Collectors.joining(";"));
+    }
+
+    private record Payload(String sort, Map<String, Object> keys) {
+    }
+}
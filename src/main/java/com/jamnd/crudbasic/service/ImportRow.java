@@ -0,0 +1,22 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.ProductoRequest;
+
+/**
+ * Fila leida de un archivo de importacion.
+ *
+ * @param line numero de linea donde inicia la fila
+ * @param sku sku leido, puede ser null si la fila no se pudo interpretar
+ * @param request producto leido, null si la fila no se pudo interpretar
+ * @param error motivo por el que no se pudo interpretar la fila
+ */
+record ImportRow(long line, String sku, ProductoRequest request, String error) {
+
+    static ImportRow ok(long line, ProductoRequest request) {
+        return new ImportRow(line, request.sku(), request, null);
+    }
+
+    static ImportRow failed(long line, String sku, String error) {
+        return new ImportRow(line, sku, null, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.jamnd.crudbasic.service;
+
+import java.io.IOException;
+
+/**
+ * Lector secuencial de filas de importacion. Mantiene en memoria solo la fila actual.
+ */
+interface ImportRowReader {
+
+    /**
+     * Lee la siguiente fila.
+     *
+     * @return fila leida o null al terminar el archivo
+     * @throws IOException si falla la lectura
+     */
+    ImportRow next() throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.jamnd.crudbasic.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.jamnd.crudbasic.dto.ProductoRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Lee productos en formato NDJSON: un objeto JSON por linea.
+ */
+class NdjsonImportRowReader implements ImportRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long line;
+
+    NdjsonImportRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectReader = objectMapper.readerFor(ProductoRequest.class);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        if (text == null) {
+            return null;
+        }
+        try {
+            return ImportRow.ok(line, objectReader.readValue(text));
+        } catch (JsonProcessingException ex) {
+            return ImportRow.failed(line, null, "JSON invalido: " + ex.getOriginalMessage());
+        }
+    }
+}
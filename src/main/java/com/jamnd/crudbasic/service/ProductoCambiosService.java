@@ -0,0 +1,35 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.CambiosResponse;
+
+/**
+ * Contrato de servicio para el feed incremental de cambios de productos.
+ */
+public interface ProductoCambiosService {
+
+    /**
+     * Obtiene las altas, modificaciones y bajas posteriores al token.
+     *
+     * @param since token de la consulta anterior, null o vacio para recorrer desde el inicio
+     * @param limit cantidad maxima de cambios
+     * @return cambios y token siguiente
+     */
+    CambiosResponse findCambios(String since, int limit);
+
+    /**
+     * Igual que {@link #findCambios(String, int)}, pero sin margen: entrega tambien los cambios recientes.
+     * Solo es seguro para quien ya recibe en vivo lo que se confirme despues de la consulta.
+     *
+     * @param since token de la consulta anterior, null o vacio para recorrer desde el inicio
+     * @param limit cantidad maxima de cambios
+     * @return cambios y token siguiente
+     */
+    CambiosResponse findCambiosRecientes(String since, int limit);
+
+    /**
+     * Elimina las bajas mas antiguas que la retencion configurada.
+     *
+     * @return cantidad de bajas eliminadas
+     */
+    int purgarBajas();
+}
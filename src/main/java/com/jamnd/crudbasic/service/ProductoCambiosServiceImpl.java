@@ -0,0 +1,109 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.config.CambiosProperties;
+import com.jamnd.crudbasic.dto.CambiosResponse;
+import com.jamnd.crudbasic.dto.ProductoCambio;
+import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.exception.ChangeTokenExpiredException;
+import com.jamnd.crudbasic.repository.ProductoBajaRepository;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementacion del feed de cambios.
+ * <p>
+ * Une productos por (updated_at, id) y bajas por (deleted_at, id) en un solo orden, con una consulta
+ * por indice para cada tabla. Solo entrega cambios con al menos {@code margen} de antiguedad: la fecha
+ * se asigna antes del commit, y sin ese margen una transaccion lenta podria confirmar una fecha
+ * anterior a un token ya entregado y el cliente nunca la veria.
+ */
+@Service
+public class ProductoCambiosServiceImpl implements ProductoCambiosService {
+
+    private static final Comparator<ProductoCambio> ORDEN = Comparator
+        .comparing(ProductoCambio::changedAt)
+        .thenComparing(ProductoCambio::id);
+
+    private final ProductoRepository productoRepository;
+    private final ProductoBajaRepository productoBajaRepository;
+    private final CambiosProperties properties;
+
+    public ProductoCambiosServiceImpl(
+        ProductoRepository productoRepository,
+        ProductoBajaRepository productoBajaRepository,
+        CambiosProperties properties
+    ) {
+        this.productoRepository = productoRepository;
+        this.productoBajaRepository = productoBajaRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * No es de solo lectura a proposito: una replica atrasada haria avanzar el token sobre cambios
+     * que todavia no recibio.
+     */
+    @Override
+    @Transactional
+    public CambiosResponse findCambios(String since, int limit) {
+        return findCambios(since, limit, properties.margen());
+    }
+
+    @Override
+    @Transactional
+    public CambiosResponse findCambiosRecientes(String since, int limit) {
+        return findCambios(since, limit, Duration.ZERO);
+    }
+
+    private CambiosResponse findCambios(String since, int limit, Duration margen) {
+        LocalDateTime ahora = Producto.currentTimestamp();
+        CambiosToken desde = CambiosToken.INICIO;
+        if (StringUtils.hasText(since)) {
+            desde = CambiosToken.decode(since);
+            if (desde.changedAt().isBefore(ahora.minus(properties.retencionBajas()))) {
+                throw new ChangeTokenExpiredException(
+                    "El token es anterior a la retencion de bajas; se debe resincronizar con /export");
+            }
+        }
+        LocalDateTime hasta = ahora.minus(margen);
+        List<ProductoCambio> cambios = new ArrayList<>();
+        productoRepository.findCambios(desde.changedAt(), desde.id(), hasta, Limit.of(limit + 1))
+            .forEach(producto -> cambios.add(ProductoCambio.upsert(producto)));
+        productoBajaRepository.findCambios(desde.changedAt(), desde.id(), hasta, Limit.of(limit + 1))
+            .forEach(baja -> cambios.add(ProductoCambio.delete(baja.getId(), baja.getSku(), baja.getDeletedAt())));
+        cambios.sort(ORDEN);
+
+        boolean hasMore = cambios.size() > limit;
+        List<ProductoCambio> pagina = hasMore ? List.copyOf(cambios.subList(0, limit)) : List.copyOf(cambios);
+        CambiosToken siguiente;
+        if (hasMore) {
+            ProductoCambio ultimo = pagina.getLast();
+            siguiente = new CambiosToken(ultimo.changedAt(), ultimo.id());
+        } else {
+            // Todo lo anterior al margen ya se entrego: el token avanza aunque no haya cambios,
+            // asi un cliente sin novedades no llega a la retencion.
+            CambiosToken limite = CambiosToken.hasta(hasta);
+            siguiente = limite.isAfter(desde) ? limite : desde;
+        }
+        return new CambiosResponse(pagina, siguiente.encode(), hasMore);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(
+        initialDelayString = "${app.productos.cambios.purga-intervalo:1h}",
+        fixedDelayString = "${app.productos.cambios.purga-intervalo:1h}"
+    )
+    public int purgarBajas() {
+        return productoBajaRepository.deleteOlderThan(Producto.currentTimestamp().minus(properties.retencionBajas()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.jamnd.crudbasic.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jamnd.crudbasic.config.ConteoProperties;
+import com.jamnd.crudbasic.dto.ProductoFilter;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import com.jamnd.crudbasic.repository.ProductoSpecifications;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calcula totales aproximados de productos sin ejecutar un COUNT por solicitud.
+ * <p>
+ * Sin filtro usa las estadisticas del planner de PostgreSQL cuando estan habilitadas.
+ * En otro caso guarda el conteo exacto por filtro y lo recalcula al vencer el TTL.
+ */
+@Component
+public class ProductoCountEstimator {
+
+    private final ProductoRepository productoRepository;
+    private final ConteoProperties properties;
+    private final Cache<ProductoFilter, Long> conteos;
+
+    public ProductoCountEstimator(ProductoRepository productoRepository, ConteoProperties properties) {
+        this.productoRepository = productoRepository;
+        this.properties = properties;
+        this.conteos = Caffeine.newBuilder()
+            .expireAfterWrite(properties.ttl())
+            .maximumSize(properties.maxFiltros())
+            .build();
+    }
+
+    /**
+     * Estima el total de productos para el filtro indicado.
+     *
+     * @param filtro criterios del listado
+     * @return total aproximado
+     */
+    public long estimate(ProductoFilter filtro) {
+        if (filtro.isEmpty() && properties.estadisticasPostgres()) {
+            Long reltuples = productoRepository.estimateCountFromStatistics();
+            if (reltuples != null && reltuples >= 0) {
+                return reltuples;
+            }
+        }
+        return conteos.get(filtro.normalized(), this::countExact);
+    }
+
+    private long countExact(ProductoFilter filtro) {
+        return filtro.isEmpty()
+            ? productoRepository.count()
+            : productoRepository.count(ProductoSpecifications.of(filtro));
+    }
+}
@@ -0,0 +1,22 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.CatalogFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Contrato de servicio para exportar el catalogo completo de productos.
+ */
+public interface ProductoExportService {
+
+    /**
+     * Escribe todos los productos en el flujo indicado a medida que se leen de la base de datos.
+     *
+     * @param output flujo de salida
+     * @param format formato de salida
+     * @return cantidad de productos exportados
+     * @throws IOException si falla la escritura
+     */
+    long exportProductos(OutputStream output, CatalogFormat format) throws IOException;
+}
@@ -0,0 +1,184 @@
+package com.jamnd.crudbasic.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jamnd.crudbasic.dto.CatalogFormat;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.mapper.ProductoMapper;
+import com.jamnd.crudbasic.mapper.ProductoProtobuf;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Implementacion de la exportacion del catalogo.
+ * <p>
+ * Lee los productos con un cursor del servidor (una sola consulta con fetch size acotado)
+ * y escribe cada fila al flujo de salida apenas llega. Cada entidad se desvincula del
+ * contexto de persistencia despues de escribirla para que el heap no crezca.
+ * <p>
+ * Los formatos binarios escriben sobre el mismo buffer de bytes: CBOR y Smile como una
+ * secuencia de valores de un solo generador y Protobuf como mensajes con prefijo de largo.
+ */
+@Service
+public class ProductoExportServiceImpl implements ProductoExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final String CSV_HEADER =
+        "id,sku,nombre,descripcion,precio,stock,categoria,activo,createdAt,updatedAt\n";
+
+    private final ProductoRepository productoRepository;
+    private final ProductoMapper productoMapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+    private final EntityManager entityManager;
+
+    public ProductoExportServiceImpl(
+        ProductoRepository productoRepository,
+        ProductoMapper productoMapper,
+        ObjectMapper objectMapper,
+        ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders,
+        EntityManager entityManager
+    ) {
+        this.productoRepository = productoRepository;
+        this.productoMapper = productoMapper;
+        this.objectMapper = objectMapper;
+        this.cborMapper = objectMapperBuilders.getObject().factory(new CBORFactory()).build();
+        this.smileMapper = objectMapperBuilders.getObject().factory(new SmileFactory()).build();
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProductos(OutputStream output, CatalogFormat format) throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(output, 64 * 1024);
+        // El buffer grande es el de bytes, compartido por texto y binario.
+        Writer writer = new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8), 1024);
+        RowWriter rowWriter = switch (format) {
+            case CSV -> csvWriter(writer);
+            case NDJSON -> ndjsonWriter(writer);
+            case CBOR -> sequenceWriter(cborMapper, buffer);
+            case SMILE -> sequenceWriter(smileMapper, buffer);
+            case PROTOBUF -> response -> ProductoProtobuf.writeDelimited(response, buffer);
+        };
+        long count = 0;
+        try (Stream<Producto> productos = productoRepository.streamAllByOrderById()) {
+            Iterator<Producto> iterator = productos.iterator();
+            while (iterator.hasNext()) {
+                Producto producto = iterator.next();
+                rowWriter.write(productoMapper.toResponse(producto));
+                entityManager.detach(producto);
+                if (++count % FLUSH_EVERY == 0) {
+                    rowWriter.flush();
+                    writer.flush();
+                    buffer.flush();
+                }
+            }
+        }
+        rowWriter.flush();
+        writer.flush();
+        buffer.flush();
+        return count;
+    }
+
+    private RowWriter ndjsonWriter(Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        ObjectWriter objectWriter = objectMapper.writerFor(ProductoResponse.class);
+        return response -> {
+            objectWriter.writeValue(generator, response);
+            generator.flush();
+            writer.write('\n');
+        };
+    }
+
+    private static RowWriter sequenceWriter(ObjectMapper mapper, OutputStream output) throws IOException {
+        JsonGenerator generator = mapper.getFactory().createGenerator(output)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        ObjectWriter objectWriter = mapper.writerFor(ProductoResponse.class);
+        return new RowWriter() {
+            @Override
+            public void write(ProductoResponse response) throws IOException {
+                objectWriter.writeValue(generator, response);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                generator.flush();
+            }
+        };
+    }
+
+    private RowWriter csvWriter(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        return response -> {
+            writer.write(String.valueOf(response.id()));
+            writer.write(',');
+            writeCsv(writer, response.sku());
+            writer.write(',');
+            writeCsv(writer, response.nombre());
+            writer.write(',');
+            writeCsv(writer, response.descripcion());
+            writer.write(',');
+            writer.write(response.precio().toPlainString());
+            writer.write(',');
+            writer.write(String.valueOf(response.stock()));
+            writer.write(',');
+            writeCsv(writer, response.categoria());
+            writer.write(',');
+            writer.write(String.valueOf(response.activo()));
+            writer.write(',');
+            writer.write(String.valueOf(response.createdAt()));
+            writer.write(',');
+            writer.write(String.valueOf(response.updatedAt()));
+            writer.write('\n');
+        };
+    }
+
+    private static void writeCsv(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+
+        void write(ProductoResponse response) throws IOException;
+
+        /**
+         * Vacia lo que el formato tenga pendiente hacia el flujo de bytes.
+         *
+         * @throws IOException si falla la escritura
+         */
+        default void flush() throws IOException {
+        }
+    }
+}
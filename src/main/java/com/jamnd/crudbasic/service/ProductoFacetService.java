@@ -0,0 +1,21 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.FacetsResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Contrato de servicio para los conteos de la barra de filtros del catalogo.
+ */
+public interface ProductoFacetService {
+
+    /**
+     * Cuenta productos por categoria y, si se indican limites, por rango de precio.
+     *
+     * @param soloActivos omite categorias sin productos activos y cuenta solo activos por precio
+     * @param precios limites de los rangos de precio, en cualquier orden
+     * @return conteos por categoria y por rango de precio
+     */
+    FacetsResponse findFacets(boolean soloActivos, List<BigDecimal> precios);
+}
@@ -0,0 +1,245 @@
+package com.jamnd.crudbasic.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jamnd.crudbasic.config.ConteoProperties;
+import com.jamnd.crudbasic.dto.CategoriaFacet;
+import com.jamnd.crudbasic.dto.FacetsResponse;
+import com.jamnd.crudbasic.dto.PrecioFacet;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Implementacion de los conteos del catalogo con cache en memoria.
+ * <p>
+ * Los conteos por categoria se cargan una vez y luego se ajustan con cada alta, cambio o baja
+ * confirmada, sin volver a consultar. Los rangos de precio se guardan por combinacion de limites
+ * y se descartan solo cuando cambia un precio, el estado activo o la cantidad de productos.
+ * <p>
+ * Los ajustes solo ven los cambios confirmados en esta instancia: con varias instancias, o con
+ * escrituras que no pasan por el servicio, los conteos se desvian. Por eso ambos se recargan de la
+ * base al vencer {@code app.productos.conteo.facets-ttl}, que acota cuanto pueden atrasarse.
+ * <p>
+ * Para no mezclar una carga con un cambio concurrente, una carga solo se guarda si ninguna
+ * transaccion con cambios estaba confirmandose mientras se consultaba.
+ */
+@Service
+public class ProductoFacetServiceImpl implements ProductoFacetService {
+
+    private static final Comparator<String> CATEGORIA_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private final ProductoRepository productoRepository;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<ProductoChangedEvent> confirmando = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final long ttlNanos;
+    private final Cache<PrecioKey, List<PrecioFacet>> precios;
+    private Map<String, long[]> categorias;
+    private long categoriasCargadas;
+    private long generation;
+
+    public ProductoFacetServiceImpl(ProductoRepository productoRepository, ConteoProperties properties) {
+        this.productoRepository = productoRepository;
+        this.ttlNanos = properties.facetsTtl().toNanos();
+        this.precios = Caffeine.newBuilder()
+            .maximumSize(256)
+            .expireAfterWrite(properties.facetsTtl())
+            .build();
+    }
+
+    /**
+     * No es de solo lectura a proposito: con replicas, una carga desde una replica atrasada quedaria
+     * como base de los ajustes incrementales. Las cargas son pocas y van al primario.
+     */
+    @Override
+    @Transactional
+    public FacetsResponse findFacets(boolean soloActivos, List<BigDecimal> limites) {
+        List<CategoriaFacet> conteos = categorias().entrySet().stream()
+            .map(entry -> new CategoriaFacet(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+            .filter(facet -> !soloActivos || facet.activos() > 0)
+            .sorted(Comparator.comparing(CategoriaFacet::categoria, CATEGORIA_ORDER))
+            .toList();
+        return new FacetsResponse(conteos, precios(soloActivos, limites));
+    }
+
+    /**
+     * Marca el cambio como en curso antes del commit, para que ninguna carga concurrente se guarde.
+     *
+     * @param event cambio en la transaccion actual
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBeforeCommit(ProductoChangedEvent event) {
+        lockedRun(() -> {
+            confirmando.add(event);
+            generation++;
+        });
+    }
+
+    /**
+     * Aplica el cambio confirmado sobre los conteos en cache.
+     *
+     * @param event cambio confirmado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAfterCommit(ProductoChangedEvent event) {
+        lockedRun(() -> {
+            confirmando.remove(event);
+            generation++;
+            apply(event);
+        });
+    }
+
+    /**
+     * Descarta el cambio de una transaccion revertida.
+     *
+     * @param event cambio revertido
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onAfterRollback(ProductoChangedEvent event) {
+        lockedRun(() -> confirmando.remove(event));
+    }
+
+    private Map<String, long[]> categorias() {
+        Map<String, long[]> cached = locked(() -> {
+            if (categorias != null && System.nanoTime() - categoriasCargadas >= ttlNanos) {
+                categorias = null;
+            }
+            return categorias == null ? null : copy(categorias);
+        });
+        if (cached != null) {
+            return cached;
+        }
+        return load(() -> {
+            Map<String, long[]> loaded = new HashMap<>();
+            productoRepository.countByCategoria()
+                .forEach(facet -> loaded.put(facet.categoria(), new long[] {facet.total(), facet.activos()}));
+            return loaded;
+        }, loaded -> {
+            categorias = copy(loaded);
+            categoriasCargadas = System.nanoTime();
+        });
+    }
+
+    private List<PrecioFacet> precios(boolean soloActivos, List<BigDecimal> limites) {
+        if (limites == null || limites.isEmpty()) {
+            return List.of();
+        }
+        // Normaliza para que el mismo conjunto de limites comparta entrada de cache.
+        List<BigDecimal> ordenados = new ArrayList<>(new TreeSet<>(limites.stream()
+            .filter(Objects::nonNull)
+            .map(BigDecimal::stripTrailingZeros)
+            .toList()));
+        PrecioKey key = new PrecioKey(soloActivos, ordenados);
+        List<PrecioFacet> cached = precios.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        return load(() -> {
+            long[] counts = productoRepository.countByPrecio(ordenados, soloActivos);
+            List<PrecioFacet> rangos = new ArrayList<>(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                rangos.add(new PrecioFacet(
+                    i == 0 ? null : ordenados.get(i - 1),
+                    i == ordenados.size() ? null : ordenados.get(i),
+                    counts[i]));
+            }
+            return List.copyOf(rangos);
+        }, loaded -> precios.put(key, loaded));
+    }
+
+    private <T> T load(Supplier<T> query, Consumer<T> store) {
+        long[] inicio = new long[1];
+        boolean ocupado = locked(() -> {
+            inicio[0] = generation;
+            return !confirmando.isEmpty();
+        });
+        T loaded = query.get();
+        lockedRun(() -> {
+            if (!ocupado && generation == inicio[0]) {
+                store.accept(loaded);
+            }
+        });
+        return loaded;
+    }
+
+    private void apply(ProductoChangedEvent event) {
+        ProductoResponse antes = event.antes();
+        ProductoResponse despues = event.despues();
+        boolean desconocido = event.tipo() == ProductoChangedEvent.Tipo.BULK
+            || (event.tipo() == ProductoChangedEvent.Tipo.UPDATED && antes == null);
+        if (desconocido) {
+            categorias = null;
+            precios.invalidateAll();
+            return;
+        }
+        if (categorias != null) {
+            if (antes != null) {
+                add(antes, -1);
+            }
+            if (despues != null) {
+                add(despues, 1);
+            }
+        }
+        boolean cambiaPrecio = antes == null || despues == null
+            || !Objects.equals(antes.activo(), despues.activo())
+            || antes.precio().compareTo(despues.precio()) != 0;
+        if (cambiaPrecio) {
+            precios.invalidateAll();
+        }
+    }
+
+    private void add(ProductoResponse producto, int delta) {
+        long[] counts = categorias.computeIfAbsent(producto.categoria(), key -> new long[2]);
+        counts[0] += delta;
+        if (Boolean.TRUE.equals(producto.activo())) {
+            counts[1] += delta;
+        }
+        if (counts[0] <= 0) {
+            categorias.remove(producto.categoria());
+        }
+    }
+
+    private static Map<String, long[]> copy(Map<String, long[]> source) {
+        Map<String, long[]> copy = new HashMap<>();
+        source.forEach((key, counts) -> copy.put(key, counts.clone()));
+        return copy;
+    }
+
+    private void lockedRun(Runnable action) {
+        locked(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T locked(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record PrecioKey(boolean soloActivos, List<BigDecimal> limites) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.CatalogFormat;
+import com.jamnd.crudbasic.dto.ImportResponse;
+
+import java.io.InputStream;
+
+/**
+ * Contrato de servicio para la importacion masiva de productos.
+ */
+public interface ProductoImportService {
+
+    /**
+     * Importa productos desde un flujo CSV o NDJSON.
+     * Cada fila se valida como {@code ProductoRequest} y se inserta o actualiza por sku.
+     * Las filas se confirman por bloques, por lo que la memoria no depende del tamano del archivo.
+     *
+     * @param input contenido a importar
+     * @param format formato del contenido
+     * @return resumen de la importacion
+     */
+    ImportResponse importProductos(InputStream input, CatalogFormat format);
+}
@@ -0,0 +1,208 @@
+package com.jamnd.crudbasic.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamnd.crudbasic.config.CacheConfig;
+import com.jamnd.crudbasic.config.ImportacionProperties;
+import com.jamnd.crudbasic.dto.CatalogFormat;
+import com.jamnd.crudbasic.dto.ImportResponse;
+import com.jamnd.crudbasic.dto.ImportRowError;
+import com.jamnd.crudbasic.dto.ProductoRequest;
+import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
+import com.jamnd.crudbasic.mapper.ProductoMapper;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementacion de la importacion masiva de productos.
+ * <p>
+ * Lee el flujo fila por fila y confirma bloques de {@code chunkSize} filas en su propia
+ * transaccion: busca los SKU del bloque con una consulta IN, actualiza los existentes e
+ * inserta los nuevos en batches JDBC. Si un bloque falla en base de datos se reintenta
+ * fila por fila para aislar las filas con error.
+ */
+@Service
+public class ProductoImportServiceImpl implements ProductoImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductoImportServiceImpl.class);
+
+    private final ProductoRepository productoRepository;
+    private final ProductoMapper productoMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportacionProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public ProductoImportServiceImpl(
+        ProductoRepository productoRepository,
+        ProductoMapper productoMapper,
+        Validator validator,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ImportacionProperties properties,
+        ApplicationEventPublisher eventPublisher,
+        ObjectProvider<CacheManager> cacheManager
+    ) {
+        this.productoRepository = productoRepository;
+        this.productoMapper = productoMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public ImportResponse importProductos(InputStream input, CatalogFormat format) {
+        long start = System.nanoTime();
+        Progress progress = new Progress(properties.maxErrores());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ImportRowReader rows = format == CatalogFormat.CSV
+            ? new CsvImportRowReader(reader)
+            : new NdjsonImportRowReader(reader, objectMapper);
+        List<ImportRow> chunk = new ArrayList<>(properties.chunkSize());
+        try {
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                progress.total++;
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error != null) {
+                    progress.reject(row, error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() >= properties.chunkSize()) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, progress);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error leyendo el archivo de importacion", ex);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = progress.total * 1000.0 / elapsedMillis;
+        log.info("Importacion {} terminada: {} filas, {} guardadas, {} rechazadas en {} ms ({} filas/s)",
+            format, progress.total, progress.upserted, progress.rejected, elapsedMillis,
+            String.format("%.1f", rowsPerSecond));
+        return new ImportResponse(
+            progress.total,
+            progress.upserted,
+            progress.rejected,
+            elapsedMillis,
+            rowsPerSecond,
+            List.copyOf(progress.errors)
+        );
+    }
+
+    private void writeChunk(List<ImportRow> chunk, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(chunk));
+            progress.upserted += chunk.size();
+        } catch (DataAccessException ex) {
+            log.warn("Bloque de importacion rechazado por la base de datos, se reintenta fila por fila: {}",
+                ex.getMostSpecificCause().getMessage());
+            for (ImportRow row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> upsert(List.of(row)));
+                    progress.upserted++;
+                } catch (DataAccessException rowEx) {
+                    progress.reject(row, "Error de base de datos: " + rowEx.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void upsert(List<ImportRow> rows) {
+        // Si un sku se repite dentro del bloque gana la ultima fila, igual que entre bloques.
+        Map<String, ProductoRequest> requests = new LinkedHashMap<>();
+        rows.forEach(row -> requests.put(row.request().sku(), row.request()));
+        Map<String, Producto> existing = productoRepository.findBySkuIn(requests.keySet()).stream()
+            .collect(Collectors.toMap(Producto::getSku, Function.identity()));
+        List<Producto> nuevos = new ArrayList<>();
+        requests.forEach((sku, request) -> {
+            Producto entity = existing.get(sku);
+            if (entity != null) {
+                productoMapper.updateEntity(entity, request);
+            } else {
+                nuevos.add(productoMapper.toEntity(request));
+            }
+        });
+        productoRepository.saveAll(nuevos);
+        productoRepository.flush();
+        evict(existing.values().stream().map(Producto::getId).toList());
+        eventPublisher.publishEvent(ProductoChangedEvent.bulk());
+    }
+
+    private void evict(Iterable<Long> ids) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager == null ? null : manager.getCache(CacheConfig.PRODUCTOS);
+        if (cache != null) {
+            // La cache es transaccional: la invalidacion se aplica despues del commit.
+            ids.forEach(cache::evict);
+        }
+    }
+
+    private String validate(ProductoRequest request) {
+        Set<ConstraintViolation<ProductoRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .collect(Collectors.joining("; "));
+    }
+
+    private static final class Progress {
+
+        private final int maxErrors;
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long total;
+        private long upserted;
+        private long rejected;
+
+        private Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(ImportRow row, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportRowError(row.line(), row.sku(), message));
+            }
+        }
+    }
+}
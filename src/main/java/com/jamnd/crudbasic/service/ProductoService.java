@@ -1,9 +1,19 @@
 package com.jamnd.crudbasic.service;
 
+import com.jamnd.crudbasic.dto.BatchCreateResponse;
+import com.jamnd.crudbasic.dto.CatalogVersion;
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoFilter;
+import com.jamnd.crudbasic.dto.ProductoPatchRequest;
 import com.jamnd.crudbasic.dto.ProductoRequest;
 import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.TotalMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * Contrato de servicio para casos de uso de producto.
@@ -18,6 +28,15 @@ public interface ProductoService {
      */
     ProductoResponse create(ProductoRequest request);
 
+    /**
+     * Crea varios productos en una sola transaccion.
+     * Los elementos invalidos o con SKU duplicado se rechazan sin afectar al resto.
+     *
+     * @param requests productos a crear
+     * @return resultado por elemento
+     */
+    BatchCreateResponse createBatch(List<ProductoRequest> requests);
+
     /**
      * Lista productos con paginacion y filtro por nombre.
      *
@@ -27,6 +46,83 @@ public interface ProductoService {
      */
     Page<ProductoResponse> findAll(String nombre, Pageable pageable);
 
+    /**
+     * Lista productos con paginacion y el modo de total indicado.
+     * Con {@link TotalMode#NONE} o {@link TotalMode#ESTIMATED} no se ejecuta el COUNT de la pagina.
+     *
+     * @param filtro criterios opcionales del listado
+     * @param pageable datos de paginacion
+     * @param totalMode modo de calculo de totales
+     * @return pagina de productos
+     */
+    PageResponse<ProductoResponse> findAll(ProductoFilter filtro, Pageable pageable, TotalMode totalMode);
+
+    /**
+     * Lista productos con paginacion por cursor (keyset).
+     * El costo de cada pagina no depende de su profundidad.
+     *
+     * @param filtro criterios opcionales del listado
+     * @param cursor cursor de la pagina anterior, vacio para iniciar
+     * @param size tamano de pagina
+     * @param sort orden aplicado, el id se usa como desempate
+     * @param totalMode modo de calculo de totales
+     * @return pagina de productos con el cursor siguiente
+     */
+    PageResponse<ProductoResponse> findAllByCursor(
+        ProductoFilter filtro,
+        String cursor,
+        int size,
+        Sort sort,
+        TotalMode totalMode
+    );
+
+    /**
+     * Lista solo las propiedades indicadas, seleccionando unicamente esas columnas.
+     * El id siempre se incluye.
+     *
+     * @param filtro criterios opcionales del listado
+     * @param fields propiedades de {@link ProductoResponse} a devolver
+     * @param pageable datos de paginacion
+     * @param totalMode modo de calculo de totales
+     * @return pagina de filas parciales
+     */
+    PageResponse<Map<String, Object>> findFields(
+        ProductoFilter filtro,
+        List<String> fields,
+        Pageable pageable,
+        TotalMode totalMode
+    );
+
+    /**
+     * Lista solo las propiedades indicadas con paginacion por cursor.
+     * El id y las propiedades del orden siempre se incluyen.
+     *
+     * @param filtro criterios opcionales del listado
+     * @param fields propiedades de {@link ProductoResponse} a devolver
+     * @param cursor cursor de la pagina anterior, vacio para iniciar
+     * @param size tamano de pagina
+     * @param sort orden aplicado, el id se usa como desempate
+     * @param totalMode modo de calculo de totales
+     * @return pagina de filas parciales con el cursor siguiente
+     */
+    PageResponse<Map<String, Object>> findFieldsByCursor(
+        ProductoFilter filtro,
+        List<String> fields,
+        String cursor,
+        int size,
+        Sort sort,
+        TotalMode totalMode
+    );
+
+    /**
+     * Obtiene cantidad y ultima actualizacion de los productos del filtro, para validar
+     * listados en cache del cliente sin consultar la pagina.
+     *
+     * @param filtro criterios opcionales del listado
+     * @return version del listado
+     */
+    CatalogVersion findVersion(ProductoFilter filtro);
+
     /**
      * Obtiene un producto por id.
      *
@@ -44,6 +140,16 @@ public interface ProductoService {
      */
     ProductoResponse update(Long id, ProductoRequest request);
 
+    /**
+     * Actualiza solo los campos enviados con una unica sentencia UPDATE.
+     *
+     * @param id id a actualizar
+     * @param request campos a modificar, los nulos no cambian
+     * @param expectedVersion version esperada (If-Match), null para no validarla
+     * @return producto actualizado
+     */
+    ProductoResponse patch(Long id, ProductoPatchRequest request, Long expectedVersion);
+
     /**
      * Elimina un producto por id.
      *
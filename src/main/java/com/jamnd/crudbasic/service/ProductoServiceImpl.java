@@ -1,74 +1,406 @@
 package com.jamnd.crudbasic.service;
 
+import com.jamnd.crudbasic.config.CacheConfig;
+import com.jamnd.crudbasic.config.MetricsConfig;
+import com.jamnd.crudbasic.dto.BatchCreateResponse;
+import com.jamnd.crudbasic.dto.BatchItemResult;
+import com.jamnd.crudbasic.dto.CatalogVersion;
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoFilter;
+import com.jamnd.crudbasic.dto.ProductoPatchRequest;
 import com.jamnd.crudbasic.dto.ProductoRequest;
 import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.TotalMode;
 import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.entity.ProductoBaja;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
 import com.jamnd.crudbasic.exception.DuplicateSkuException;
+import com.jamnd.crudbasic.exception.InvalidFieldsException;
 import com.jamnd.crudbasic.exception.ResourceNotFoundException;
+import com.jamnd.crudbasic.exception.VersionConflictException;
 import com.jamnd.crudbasic.mapper.ProductoMapper;
+import com.jamnd.crudbasic.repository.ProductoBajaRepository;
 import com.jamnd.crudbasic.repository.ProductoRepository;
+import com.jamnd.crudbasic.repository.ProductoSpecifications;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Implementacion del servicio de productos.
+ * <p>
+ * Cada metodo publico se mide en el timer {@code productos.service} con los tags {@code class},
+ * {@code method} y {@code exception}.
+ * <p>
+ * Cada escritura publica un {@link ProductoChangedEvent} que los oyentes reciben al confirmar la transaccion.
  */
 @Service
 @Transactional
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class ProductoServiceImpl implements ProductoService {
 
+    private static final String ID = "id";
+
+    private static final String SKU_UNIQUE = "uk_productos_sku";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final ProductoRepository productoRepository;
+    private final ProductoBajaRepository productoBajaRepository;
     private final ProductoMapper productoMapper;
+    private final CursorCodec cursorCodec;
+    private final ProductoCountEstimator countEstimator;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductoServiceImpl(ProductoRepository productoRepository, ProductoMapper productoMapper) {
+    public ProductoServiceImpl(
+        ProductoRepository productoRepository,
+        ProductoBajaRepository productoBajaRepository,
+        ProductoMapper productoMapper,
+        CursorCodec cursorCodec,
+        ProductoCountEstimator countEstimator,
+        Validator validator,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.productoRepository = productoRepository;
+        this.productoBajaRepository = productoBajaRepository;
         this.productoMapper = productoMapper;
+        this.cursorCodec = cursorCodec;
+        this.countEstimator = countEstimator;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public ProductoResponse create(ProductoRequest request) {
-        if (productoRepository.existsBySku(request.sku())) {
+        Producto entity = productoMapper.toEntity(request);
+        // Una sola sentencia: la restriccion unica decide el duplicado, sin carrera entre chequeo e insert.
+        if (!productoRepository.insertIfAbsent(entity)) {
             throw new DuplicateSkuException("El sku ya existe: " + request.sku());
         }
-        Producto entity = productoMapper.toEntity(request);
-        Producto saved = productoRepository.save(entity);
-        return productoMapper.toResponse(saved);
+        ProductoResponse response = productoMapper.toResponse(entity);
+        eventPublisher.publishEvent(ProductoChangedEvent.created(response));
+        return response;
+    }
+
+    @Override
+    public BatchCreateResponse createBatch(List<ProductoRequest> requests) {
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ProductoRequest request = requests.get(i);
+            if (request == null) {
+                results[i] = new BatchItemResult(
+                    i, null, BatchItemResult.Status.INVALID, null, "El producto es obligatorio");
+                continue;
+            }
+            Set<ConstraintViolation<ProductoRequest>> violations = validator.validate(request);
+            if (violations.isEmpty()) {
+                candidates.add(i);
+            } else {
+                results[i] = rejected(i, request, BatchItemResult.Status.INVALID, formatViolations(violations));
+            }
+        }
+
+        Set<String> existing = candidates.isEmpty()
+            ? Set.of()
+            : new HashSet<>(productoRepository.findExistingSkus(
+                candidates.stream().map(i -> requests.get(i).sku()).collect(Collectors.toSet())));
+        Set<String> seen = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        List<Producto> entities = new ArrayList<>();
+        for (Integer i : candidates) {
+            ProductoRequest request = requests.get(i);
+            if (existing.contains(request.sku())) {
+                results[i] = rejected(
+                    i, request, BatchItemResult.Status.DUPLICATE, "El sku ya existe: " + request.sku());
+            } else if (!seen.add(request.sku())) {
+                results[i] = rejected(
+                    i, request, BatchItemResult.Status.DUPLICATE, "El sku se repite en el lote: " + request.sku());
+            } else {
+                accepted.add(i);
+                entities.add(productoMapper.toEntity(request));
+            }
+        }
+
+        List<Producto> saved = productoRepository.saveAllAndFlush(entities);
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(ProductoChangedEvent.bulk());
+        }
+        for (int j = 0; j < accepted.size(); j++) {
+            int i = accepted.get(j);
+            Producto entity = saved.get(j);
+            results[i] = new BatchItemResult(
+                i, entity.getSku(), BatchItemResult.Status.CREATED, entity.getId(), null);
+        }
+        return new BatchCreateResponse(
+            requests.size(), saved.size(), requests.size() - saved.size(), List.of(results));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProductoResponse> findAll(String nombre, Pageable pageable) {
-        Page<Producto> page = StringUtils.hasText(nombre)
-            ? productoRepository.findByNombreContainingIgnoreCase(nombre, pageable)
-            : productoRepository.findAll(pageable);
-        return page.map(productoMapper::toResponse);
+        Specification<Producto> spec = ProductoSpecifications.nombreContiene(nombre);
+        Slice<ProductoResponse> slice = productoRepository.findResponseSlice(spec, pageable);
+        return PageableExecutionUtils.getPage(slice.getContent(), pageable, () -> productoRepository.count(spec));
     }
 
     @Override
     @Transactional(readOnly = true)
+    public PageResponse<ProductoResponse> findAll(ProductoFilter filtro, Pageable pageable, TotalMode totalMode) {
+        Specification<Producto> spec = ProductoSpecifications.of(filtro);
+        return toPageResponse(productoRepository.findResponseSlice(spec, pageable), spec, filtro, totalMode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<ProductoResponse> findAllByCursor(
+        ProductoFilter filtro,
+        String cursor,
+        int size,
+        Sort sort,
+        TotalMode totalMode
+    ) {
+        Specification<Producto> spec = ProductoSpecifications.of(filtro);
+        List<ProductoResponse> rows = productoRepository.findResponsesAfter(
+            spec, sort, cursorCodec.decode(cursor, sort), size);
+        List<ProductoResponse> content = rows.size() > size ? rows.subList(0, size) : rows;
+        String nextCursor = rows.size() > size ? cursorCodec.encode(content.getLast(), sort) : null;
+        return PageResponse.fromCursor(content, size, total(spec, filtro, totalMode), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<Map<String, Object>> findFields(
+        ProductoFilter filtro,
+        List<String> fields,
+        Pageable pageable,
+        TotalMode totalMode
+    ) {
+        Specification<Producto> spec = ProductoSpecifications.of(filtro);
+        Slice<Map<String, Object>> slice = productoRepository.findFieldSlice(
+            spec, resolveFields(fields, Sort.unsorted()), pageable);
+        return toPageResponse(slice, spec, filtro, totalMode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<Map<String, Object>> findFieldsByCursor(
+        ProductoFilter filtro,
+        List<String> fields,
+        String cursor,
+        int size,
+        Sort sort,
+        TotalMode totalMode
+    ) {
+        Specification<Producto> spec = ProductoSpecifications.of(filtro);
+        List<Map<String, Object>> rows = productoRepository.findFieldsAfter(
+            spec, resolveFields(fields, sort), sort, cursorCodec.decode(cursor, sort), size);
+        List<Map<String, Object>> content = rows.size() > size ? rows.subList(0, size) : rows;
+        String nextCursor = rows.size() > size ? cursorCodec.encode(content.getLast(), sort) : null;
+        return PageResponse.fromCursor(content, size, total(spec, filtro, totalMode), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogVersion findVersion(ProductoFilter filtro) {
+        return productoRepository.findVersion(ProductoSpecifications.of(filtro));
+    }
+
+    /**
+     * No es de solo lectura a proposito: el resultado llena la cache compartida, y con replicas una
+     * lectura atrasada quedaria en ella para todos los clientes hasta que venza. Los fallos de cache
+     * van al primario.
+     */
+    @Override
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS, key = "#id")
     public ProductoResponse findById(Long id) {
-        Producto entity = getEntityOrThrow(id);
-        return productoMapper.toResponse(entity);
+        return productoRepository.findResponseById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, key = "#id")
     public ProductoResponse update(Long id, ProductoRequest request) {
         Producto entity = getEntityOrThrow(id);
         if (productoRepository.existsBySkuAndIdNot(request.sku(), id)) {
             throw new DuplicateSkuException("El sku ya existe: " + request.sku());
         }
+        ProductoResponse antes = productoMapper.toResponse(entity);
         productoMapper.updateEntity(entity, request);
-        Producto updated = productoRepository.save(entity);
-        return productoMapper.toResponse(updated);
+        // El flush aplica @PreUpdate y la nueva version antes de armar la respuesta y su ETag.
+        Producto updated = productoRepository.saveAndFlush(entity);
+        ProductoResponse response = productoMapper.toResponse(updated);
+        eventPublisher.publishEvent(ProductoChangedEvent.updated(antes, response));
+        return response;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, key = "#id")
+    public ProductoResponse patch(Long id, ProductoPatchRequest request, Long expectedVersion) {
+        Map<String, Object> changes = toChanges(request);
+        if (!changes.isEmpty()) {
+            int updated;
+            try {
+                updated = productoRepository.patch(id, expectedVersion, changes);
+            } catch (DataIntegrityViolationException ex) {
+                if (request.sku() != null && isDuplicateSku(ex)) {
+                    throw new DuplicateSkuException("El sku ya existe: " + request.sku());
+                }
+                throw ex;
+            }
+            if (updated == 0) {
+                // Solo en el camino de error se consulta por que no se actualizo.
+                Long current = productoRepository.findVersionById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
+                throw versionConflict(expectedVersion, current);
+            }
+        }
+        ProductoResponse response = productoRepository.findResponseById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
+        if (changes.isEmpty() && expectedVersion != null && !expectedVersion.equals(response.version())) {
+            throw versionConflict(expectedVersion, response.version());
+        }
+        if (!changes.isEmpty()) {
+            // El UPDATE dirigido no lee la fila previa: el evento sale sin estado anterior.
+            eventPublisher.publishEvent(ProductoChangedEvent.updated(null, response));
+        }
+        return response;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS, key = "#id")
     public void delete(Long id) {
         Producto entity = getEntityOrThrow(id);
         productoRepository.delete(entity);
+        // La baja queda en la misma transaccion para que el feed de cambios la informe.
+        productoBajaRepository.save(new ProductoBaja(entity.getId(), entity.getSku(), Producto.currentTimestamp()));
+        eventPublisher.publishEvent(ProductoChangedEvent.deleted(productoMapper.toResponse(entity)));
+    }
+
+    private <T> PageResponse<T> toPageResponse(
+        Slice<T> slice,
+        Specification<Producto> spec,
+        ProductoFilter filtro,
+        TotalMode totalMode
+    ) {
+        if (totalMode == TotalMode.EXACT) {
+            // Omite el COUNT cuando la pagina ya permite deducir el total.
+            return PageResponse.fromPage(PageableExecutionUtils.getPage(
+                slice.getContent(), slice.getPageable(), () -> productoRepository.count(spec)));
+        }
+        long total = -1;
+        if (totalMode == TotalMode.ESTIMATED) {
+            // El estimado nunca debe contradecir lo que ya se ve en la pagina actual.
+            long visible = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+            total = Math.max(countEstimator.estimate(filtro), visible);
+        }
+        return PageResponse.fromSlice(slice, total);
+    }
+
+    private long total(Specification<Producto> spec, ProductoFilter filtro, TotalMode totalMode) {
+        return switch (totalMode) {
+            case EXACT -> productoRepository.count(spec);
+            case ESTIMATED -> countEstimator.estimate(filtro);
+            case NONE -> -1;
+        };
+    }
+
+    /**
+     * Valida las propiedades pedidas y las ordena como en {@link ProductoResponse}.
+     * Agrega el id y las propiedades del orden, necesarias para construir el cursor.
+     */
+    private List<String> resolveFields(List<String> fields, Sort sort) {
+        Set<String> requested = new HashSet<>();
+        requested.add(ID);
+        for (String field : fields) {
+            String trimmed = field.trim();
+            if (!ProductoResponse.FIELDS.contains(trimmed)) {
+                throw new InvalidFieldsException("Campo no soportado: " + trimmed);
+            }
+            requested.add(trimmed);
+        }
+        sort.forEach(order -> requested.add(order.getProperty()));
+        return ProductoResponse.FIELDS.stream().filter(requested::contains).toList();
+    }
+
+    private Map<String, Object> toChanges(ProductoPatchRequest request) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, "sku", request.sku());
+        putIfPresent(changes, "nombre", request.nombre());
+        putIfPresent(changes, "descripcion", request.descripcion());
+        putIfPresent(changes, "precio", request.precio());
+        putIfPresent(changes, "stock", request.stock());
+        putIfPresent(changes, "categoria", request.categoria());
+        putIfPresent(changes, "activo", request.activo());
+        return changes;
+    }
+
+    private static void putIfPresent(Map<String, Object> changes, String property, Object value) {
+        if (value != null) {
+            changes.put(property, value);
+        }
+    }
+
+    /**
+     * Solo la violacion de la clave unica del SKU es un SKU duplicado; checks, NOT NULL o largos se propagan.
+     * Basta el SQLState de clave unica porque el SKU es la unica que un PATCH puede violar: el esquema
+     * generado en pruebas no conserva el nombre de la restriccion.
+     */
+    private static boolean isDuplicateSku(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return UNIQUE_VIOLATION.equals(violation.getSQLState())
+                    || constraint != null && constraint.toLowerCase(Locale.ROOT).contains(SKU_UNIQUE);
+            }
+        }
+        return false;
+    }
+
+    private VersionConflictException versionConflict(Long expected, Long current) {
+        return new VersionConflictException(
+            "El producto fue modificado: version esperada " + expected + ", actual " + current);
+    }
+
+    private BatchItemResult rejected(
+        int index,
+        ProductoRequest request,
+        BatchItemResult.Status status,
+        String message
+    ) {
+        return new BatchItemResult(index, request.sku(), status, null, message);
+    }
+
+    private String formatViolations(Set<ConstraintViolation<ProductoRequest>> violations) {
+        return violations.stream()
+            .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .collect(Collectors.joining("; "));
     }
 
     private Producto getEntityOrThrow(Long id) {
@@ -0,0 +1,28 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.StockLine;
+import com.jamnd.crudbasic.dto.StockResponse;
+
+import java.util.List;
+
+/**
+ * Contrato de servicio para movimientos atomicos de stock.
+ */
+public interface ProductoStockService {
+
+    /**
+     * Descuenta stock de todas las lineas o de ninguna.
+     *
+     * @param lineas productos y cantidades a reservar
+     * @return stock restante por producto
+     */
+    StockResponse reserve(List<StockLine> lineas);
+
+    /**
+     * Devuelve stock reservado previamente.
+     *
+     * @param lineas productos y cantidades a liberar
+     * @return stock resultante por producto
+     */
+    StockResponse release(List<StockLine> lineas);
+}
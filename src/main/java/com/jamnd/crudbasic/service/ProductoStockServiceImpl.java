@@ -0,0 +1,158 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.config.CacheConfig;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.StockLine;
+import com.jamnd.crudbasic.dto.StockLineResult;
+import com.jamnd.crudbasic.dto.StockResponse;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
+import com.jamnd.crudbasic.exception.InsufficientStockException;
+import com.jamnd.crudbasic.exception.ResourceNotFoundException;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Implementacion de movimientos de stock con UPDATE condicional por producto.
+ * <p>
+ * No hay lectura previa: cada linea es un {@code UPDATE ... WHERE stock + delta >= 0}, por lo que
+ * la base serializa las reservas concurrentes sobre la fila y el stock nunca queda negativo.
+ * El UPDATE devuelve la fila resultante, con la que se publica el cambio sin otra consulta.
+ * Los productos de alta contencion configurados en {@link StockLeaseManager} reservan contra un
+ * arriendo local y se procesan fuera de la transaccion.
+ */
+@Service
+public class ProductoStockServiceImpl implements ProductoStockService {
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<StockLeaseManager> leaseManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductoStockServiceImpl(
+        ProductoRepository productoRepository,
+        PlatformTransactionManager transactionManager,
+        ObjectProvider<CacheManager> cacheManager,
+        ObjectProvider<StockLeaseManager> leaseManager,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.productoRepository = productoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.leaseManager = leaseManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public StockResponse reserve(List<StockLine> lineas) {
+        Map<Long, Integer> cantidades = merge(lineas);
+        StockLeaseManager leases = leaseManager.getIfAvailable();
+        Map<Long, StockLineResult> resultados = new TreeMap<>();
+        Map<Long, Integer> filas = new TreeMap<>(cantidades);
+        // Primero el arriendo local; si una linea falla, incluso al rellenar el arriendo, se devuelve lo tomado.
+        try {
+            if (leases != null) {
+                for (Map.Entry<Long, Integer> entry : cantidades.entrySet()) {
+                    Long id = entry.getKey();
+                    if (!leases.isHot(id)) {
+                        continue;
+                    }
+                    filas.remove(id);
+                    Integer stock = leases.reserve(id, entry.getValue());
+                    if (stock == null) {
+                        throw new InsufficientStockException(
+                            insufficient(id, entry.getValue(), leases.available(id)));
+                    }
+                    resultados.put(id, new StockLineResult(id, entry.getValue(), stock));
+                }
+            }
+            resultados.putAll(applyToRows(filas, -1));
+        } catch (RuntimeException ex) {
+            // Solo hay resultados de lineas calientes: las de fila se agregan cuando la transaccion confirmo.
+            resultados.values().forEach(r -> leases.cancelReserve(r.id(), r.cantidad()));
+            throw ex;
+        }
+        return new StockResponse(new ArrayList<>(resultados.values()));
+    }
+
+    @Override
+    public StockResponse release(List<StockLine> lineas) {
+        Map<Long, Integer> cantidades = merge(lineas);
+        StockLeaseManager leases = leaseManager.getIfAvailable();
+        Map<Long, Integer> filas = new TreeMap<>(cantidades);
+        if (leases != null) {
+            filas.keySet().removeIf(leases::isHot);
+        }
+        Map<Long, StockLineResult> resultados = new TreeMap<>(applyToRows(filas, 1));
+        // Las devoluciones al arriendo no fallan, asi que se acumulan solo si la transaccion confirmo.
+        cantidades.forEach((id, cantidad) -> {
+            if (!filas.containsKey(id)) {
+                resultados.put(id, new StockLineResult(id, cantidad, leases.release(id, cantidad)));
+            }
+        });
+        return new StockResponse(new ArrayList<>(resultados.values()));
+    }
+
+    /**
+     * Agrupa por id y ordena ascendente: dos reservas multi-linea toman los bloqueos
+     * de fila en el mismo orden y no pueden bloquearse entre si.
+     */
+    private static Map<Long, Integer> merge(List<StockLine> lineas) {
+        Map<Long, Integer> cantidades = new TreeMap<>();
+        lineas.forEach(linea -> cantidades.merge(linea.id(), linea.cantidad(), Integer::sum));
+        return cantidades;
+    }
+
+    private Map<Long, StockLineResult> applyToRows(Map<Long, Integer> cantidades, int sign) {
+        if (cantidades.isEmpty()) {
+            return Map.of();
+        }
+        return transactionTemplate.execute(status -> {
+            Map<Long, StockLineResult> resultados = new TreeMap<>();
+            for (Map.Entry<Long, Integer> entry : cantidades.entrySet()) {
+                Long id = entry.getKey();
+                int cantidad = entry.getValue();
+                ProductoResponse producto = productoRepository.addStock(id, sign * cantidad);
+                if (producto == null) {
+                    // La excepcion revierte las lineas ya aplicadas.
+                    throw rejected(id, cantidad);
+                }
+                resultados.put(id, new StockLineResult(id, cantidad, producto.stock()));
+                eventPublisher.publishEvent(ProductoChangedEvent.stock(producto, sign * cantidad));
+            }
+            evict(cantidades.keySet());
+            return resultados;
+        });
+    }
+
+    private RuntimeException rejected(Long id, int cantidad) {
+        Integer disponible = productoRepository.findStockById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
+        return new InsufficientStockException(insufficient(id, cantidad, disponible));
+    }
+
+    private static String insufficient(Long id, int cantidad, int disponible) {
+        return "Stock insuficiente para el producto " + id
+            + ": solicitado " + cantidad + ", disponible " + disponible;
+    }
+
+    private void evict(Iterable<Long> ids) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager == null ? null : manager.getCache(CacheConfig.PRODUCTOS);
+        if (cache != null) {
+            // La cache es transaccional: la invalidacion se aplica despues del commit.
+            ids.forEach(cache::evict);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.jamnd.crudbasic.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Contrato de servicio para el stream SSE de cambios de productos.
+ */
+public interface ProductoStreamService {
+
+    /**
+     * Suscribe un cliente a los cambios confirmados desde ahora.
+     * Con token, antes envia los cambios posteriores a ese token.
+     *
+     * @param since token del ultimo cambio recibido (id del evento o nextToken del feed), null para no recuperar
+     * @return emisor SSE de la conexion
+     */
+    SseEmitter subscribe(String since);
+
+    /**
+     * Cantidad de suscriptores conectados.
+     *
+     * @return suscriptores activos
+     */
+    int suscriptores();
+}
@@ -0,0 +1,187 @@
+package com.jamnd.crudbasic.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamnd.crudbasic.config.CambiosProperties;
+import com.jamnd.crudbasic.config.StreamProperties;
+import com.jamnd.crudbasic.dto.CambiosResponse;
+import com.jamnd.crudbasic.dto.ProductoCambio;
+import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
+import com.jamnd.crudbasic.exception.StreamLimitException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementacion del stream SSE de cambios.
+ * <p>
+ * Cada cambio confirmado se serializa una sola vez y se encola en el buffer de cada suscriptor sin
+ * bloquear la transaccion que lo produjo. El envio corre en un hilo virtual por suscriptor, asi miles
+ * de conexiones no ocupan hilos de plataforma.
+ * <p>
+ * El id de cada evento es un token del feed de cambios. Al reconectar con Last-Event-ID se recupera
+ * desde ese token retrocedido en el margen del feed: la entrega es al menos una vez y cada UPSERT
+ * trae la version del producto para descartar repetidos.
+ */
+@Service
+public class ProductoStreamServiceImpl implements ProductoStreamService, MeterBinder {
+
+    private static final int PAGINA_RECUPERACION = 500;
+
+    private final ProductoCambiosService cambiosService;
+    private final ObjectMapper objectMapper;
+    private final StreamProperties properties;
+    private final CambiosProperties cambiosProperties;
+    private final Set<StreamSuscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final Semaphore cupos;
+    private final ThreadFactory hilos = Thread.ofVirtual().name("productos-stream-", 0).factory();
+    private final AtomicLong desbordes = new AtomicLong();
+
+    public ProductoStreamServiceImpl(
+        ProductoCambiosService cambiosService,
+        ObjectMapper objectMapper,
+        StreamProperties properties,
+        CambiosProperties cambiosProperties
+    ) {
+        this.cambiosService = cambiosService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.cambiosProperties = cambiosProperties;
+        this.cupos = new Semaphore(properties.maxSuscriptores());
+    }
+
+    @Override
+    public SseEmitter subscribe(String since) {
+        // El cupo se toma de forma atomica y se libera una sola vez, al cerrar por cualquier via.
+        if (!cupos.tryAcquire()) {
+            throw new StreamLimitException("Se alcanzo el maximo de " + properties.maxSuscriptores() + " suscriptores");
+        }
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        StreamSuscriptor suscriptor = new StreamSuscriptor(emitter, properties, cerrado -> {
+            suscriptores.remove(cerrado);
+            cupos.release();
+        });
+        if (StringUtils.hasText(since)) {
+            suscriptor.diferirHastaRecuperar();
+        }
+        // Se registra antes de consultar: lo que se confirme desde aqui llega por la cola.
+        suscriptores.add(suscriptor);
+        Iterator<StreamEvento> recuperados = Collections.emptyIterator();
+        if (StringUtils.hasText(since)) {
+            try {
+                String desde = CambiosToken.decode(since).retroceder(cambiosProperties.margen()).encode();
+                recuperados = recuperar(cambiosService.findCambiosRecientes(desde, PAGINA_RECUPERACION));
+            } catch (RuntimeException ex) {
+                suscriptor.cerrar();
+                throw ex;
+            }
+        }
+        emitter.onCompletion(suscriptor::cerrar);
+        emitter.onTimeout(suscriptor::cerrar);
+        emitter.onError(error -> suscriptor.cerrar());
+        Iterator<StreamEvento> pendientes = recuperados;
+        hilos.newThread(() -> suscriptor.enviar(pendientes)).start();
+        return emitter;
+    }
+
+    @Override
+    public int suscriptores() {
+        return suscriptores.size();
+    }
+
+    /**
+     * Reparte un cambio confirmado a todos los suscriptores.
+     *
+     * @param event cambio confirmado
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAfterCommit(ProductoChangedEvent event) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        StreamEvento evento = switch (event.tipo()) {
+            case CREATED, UPDATED -> evento(ProductoCambio.upsert(event.despues()));
+            // La fecha del commit es posterior a la de la baja; al recuperar se retrocede el margen.
+            case DELETED -> evento(ProductoCambio.delete(event.id(), event.antes().sku(), Producto.currentTimestamp()));
+            case BULK -> StreamEvento.RESYNC;
+        };
+        for (StreamSuscriptor suscriptor : suscriptores) {
+            if (!suscriptor.ofrecer(evento)) {
+                desbordes.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("productos.stream.suscriptores", suscriptores, Set::size)
+            .description("Conexiones SSE abiertas")
+            .register(registry);
+        FunctionCounter.builder("productos.stream.desbordes", desbordes, AtomicLong::get)
+            .description("Eventos no encolados por buffer lleno")
+            .tag("politica", properties.desborde().name().toLowerCase(Locale.ROOT))
+            .register(registry);
+    }
+
+    /**
+     * Cierra las conexiones al detener la aplicacion.
+     */
+    @PreDestroy
+    public void cerrarTodos() {
+        suscriptores.forEach(StreamSuscriptor::cerrar);
+    }
+
+    private Iterator<StreamEvento> recuperar(CambiosResponse primera) {
+        return new Iterator<>() {
+            private CambiosResponse pagina = primera;
+            private int siguiente;
+
+            @Override
+            public boolean hasNext() {
+                while (siguiente == pagina.cambios().size()) {
+                    if (!pagina.hasMore()) {
+                        return false;
+                    }
+                    pagina = cambiosService.findCambiosRecientes(pagina.nextToken(), PAGINA_RECUPERACION);
+                    siguiente = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public StreamEvento next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return evento(pagina.cambios().get(siguiente++));
+            }
+        };
+    }
+
+    private StreamEvento evento(ProductoCambio cambio) {
+        String id = new CambiosToken(cambio.changedAt(), cambio.id()).encode();
+        try {
+            return new StreamEvento(cambio.tipo().name().toLowerCase(Locale.ROOT), id, objectMapper.writeValueAsString(cambio));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el cambio", ex);
+        }
+    }
+}
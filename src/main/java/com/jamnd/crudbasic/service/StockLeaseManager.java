@@ -0,0 +1,391 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.config.CacheConfig;
+import com.jamnd.crudbasic.config.StockLeaseProperties;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.StockLeaseStatsResponse;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reservas en memoria para productos de alta contencion.
+ * <p>
+ * Cada producto configurado toma de la fila un arriendo de {@code lease-size} unidades con el
+ * mismo UPDATE condicional de las reservas normales, y lo reparte en contadores independientes.
+ * Las reservas descuentan de esos contadores sin tocar la base; solo cuando se agotan se toma
+ * otro arriendo. Como las unidades ya salieron de la fila antes de venderse, nunca se vende
+ * mas de lo que hay: una caida pierde como maximo el arriendo sin usar (stock que queda
+ * sin vender hasta conciliarlo), nunca genera stock negativo.
+ * <p>
+ * Las devoluciones se acumulan por producto y se escriben periodicamente en un solo batch.
+ * Arriendos y escrituras publican el cambio de la fila; las reservas locales no la tocan.
+ * La devolucion del arriendo sin usar es relativa ({@code stock = stock + n}), asi que no depende
+ * de la version: si un PUT o PATCH fijo otro stock mientras tanto, las unidades se suman sobre el.
+ * Las estadisticas se publican como metricas {@code stock.lease.*}.
+ */
+public class StockLeaseManager implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLeaseManager.class);
+
+    /**
+     * Separacion entre contadores (8 longs = 64 bytes) para que no compartan linea de cache.
+     */
+    private static final int PAD = 8;
+
+    private final StockLeaseProperties properties;
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, HotStock> hot = new ConcurrentHashMap<>();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final AtomicLong lastFlushLagNanos = new AtomicLong();
+    private final AtomicLong maxFlushLagNanos = new AtomicLong();
+
+    public StockLeaseManager(
+        StockLeaseProperties properties,
+        ProductoRepository productoRepository,
+        PlatformTransactionManager transactionManager,
+        ObjectProvider<CacheManager> cacheManager,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.properties = properties;
+        this.productoRepository = productoRepository;
+        // Arriendos y escrituras confirman por su cuenta, aunque la reserva que los provoca falle.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Indica si el producto reserva contra un arriendo local.
+     *
+     * @param id id del producto
+     * @return true si es de alta contencion
+     */
+    public boolean isHot(Long id) {
+        return hot.containsKey(id);
+    }
+
+    /**
+     * Reserva unidades del arriendo local, tomando otro de la fila si no alcanza.
+     *
+     * @param id id de un producto de alta contencion
+     * @param cantidad unidades a reservar
+     * @return stock restante estimado (arriendo local mas ultimo stock leido de la fila),
+     *     o null si no hay stock suficiente
+     */
+    public Integer reserve(Long id, int cantidad) {
+        HotStock stock = hot.get(id);
+        if (stock.take(cantidad)) {
+            return stock.estimate();
+        }
+        stock.refill.lock();
+        try {
+            // Otro hilo pudo haber tomado un arriendo mientras se esperaba el bloqueo.
+            if (stock.take(cantidad)) {
+                return stock.estimate();
+            }
+            long pooled = stock.drain();
+            if (pooled < cantidad) {
+                int missing = (int) (cantidad - pooled);
+                int granted = Math.max(properties.leaseSize(), missing);
+                Integer row = lease(id, stock, granted);
+                if (row == null && granted > missing) {
+                    // La fila no cubre un arriendo completo; se toma solo lo necesario.
+                    granted = missing;
+                    row = lease(id, stock, granted);
+                }
+                if (row == null) {
+                    exhausted.increment();
+                    stock.spread(pooled);
+                    return null;
+                }
+                leases.increment();
+                stock.rowStock = row;
+                pooled += granted;
+            }
+            stock.spread(pooled - cantidad);
+            return stock.estimate();
+        } finally {
+            stock.refill.unlock();
+        }
+    }
+
+    /**
+     * Devuelve al arriendo local unidades de una reserva que no se completo.
+     *
+     * @param id id de un producto de alta contencion
+     * @param cantidad unidades a devolver
+     */
+    public void cancelReserve(Long id, int cantidad) {
+        hot.get(id).spread(cantidad);
+    }
+
+    /**
+     * Acumula una devolucion para la siguiente escritura periodica.
+     *
+     * @param id id de un producto de alta contencion
+     * @param cantidad unidades devueltas
+     * @return stock estimado incluyendo devoluciones pendientes
+     */
+    public int release(Long id, int cantidad) {
+        HotStock stock = hot.get(id);
+        stock.pending.addAndGet(cantidad);
+        stock.pendingSince.compareAndSet(0, System.nanoTime());
+        return stock.estimate();
+    }
+
+    /**
+     * Stock disponible para este nodo: arriendo local mas stock actual de la fila.
+     *
+     * @param id id de un producto de alta contencion
+     * @return unidades disponibles
+     */
+    public int available(Long id) {
+        return (int) hot.get(id).budget() + productoRepository.findStockById(id).orElse(0);
+    }
+
+    /**
+     * Resuelve los SKU configurados y escribe las devoluciones acumuladas.
+     */
+    @Scheduled(fixedDelayString = "${app.productos.stock.lease.flush-interval:1s}")
+    public void flush() {
+        resolve();
+        flush(false);
+    }
+
+    /**
+     * Al detenerse devuelve a la fila los arriendos sin usar junto con las devoluciones pendientes.
+     */
+    @PreDestroy
+    public void close() {
+        flush(true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stock.lease.leased.units", this, manager -> manager.stats().leasedUnits())
+            .description("Unidades arrendadas aun sin reservar")
+            .register(registry);
+        Gauge.builder("stock.lease.pending.units", this, manager -> manager.stats().pendingUnits())
+            .description("Devoluciones pendientes de escribir")
+            .register(registry);
+        FunctionCounter.builder("stock.lease.leases", leases, LongAdder::sum)
+            .description("Arriendos tomados de la fila")
+            .register(registry);
+        FunctionCounter.builder("stock.lease.exhausted", exhausted, LongAdder::sum)
+            .description("Reservas rechazadas porque la fila no cubre un nuevo arriendo")
+            .register(registry);
+        FunctionCounter.builder("stock.lease.flushes", flushes, LongAdder::sum)
+            .description("Escrituras de devoluciones")
+            .register(registry);
+        FunctionCounter.builder("stock.lease.flush.failures", flushFailures, LongAdder::sum)
+            .description("Escrituras de devoluciones fallidas")
+            .register(registry);
+        TimeGauge.builder("stock.lease.flush.lag", lastFlushLagNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+            .description("Antiguedad de la devolucion mas vieja en la ultima escritura")
+            .register(registry);
+    }
+
+    /**
+     * Resume el estado de arriendos y escrituras.
+     *
+     * @return estadisticas actuales
+     */
+    public StockLeaseStatsResponse stats() {
+        long leased = 0;
+        long pending = 0;
+        for (HotStock stock : hot.values()) {
+            leased += stock.budget();
+            pending += stock.pending.get();
+        }
+        return new StockLeaseStatsResponse(
+            true,
+            hot.size(),
+            leased,
+            pending,
+            leases.sum(),
+            exhausted.sum(),
+            flushes.sum(),
+            flushFailures.sum(),
+            TimeUnit.NANOSECONDS.toMillis(lastFlushLagNanos.get()),
+            TimeUnit.NANOSECONDS.toMillis(maxFlushLagNanos.get())
+        );
+    }
+
+    private void resolve() {
+        // Se consulta en cada ciclo para incluir productos creados despues del arranque.
+        if (!properties.skus().isEmpty()) {
+            for (Long producto : productoRepository.findIdsBySkuIn(properties.skus())) {
+                hot.computeIfAbsent(producto, id -> new HotStock(properties.stripes()));
+            }
+        }
+    }
+
+    private Integer lease(Long id, HotStock stock, int cantidad) {
+        return transactionTemplate.execute(status -> {
+            ProductoResponse row = productoRepository.addStock(id, -cantidad);
+            if (row == null) {
+                return null;
+            }
+            evict(List.of(id));
+            eventPublisher.publishEvent(ProductoChangedEvent.stock(row, -cantidad));
+            return row.stock();
+        });
+    }
+
+    private void flush(boolean returnLeases) {
+        Map<Long, Integer> pending = new TreeMap<>();
+        long oldest = 0;
+        for (Map.Entry<Long, HotStock> entry : hot.entrySet()) {
+            HotStock stock = entry.getValue();
+            long since = stock.pendingSince.getAndSet(0);
+            long units = stock.pending.getAndSet(0) + (returnLeases ? stock.drain() : 0);
+            if (units != 0) {
+                pending.put(entry.getKey(), (int) units);
+                if (since != 0 && (oldest == 0 || since - oldest < 0)) {
+                    oldest = since;
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productoRepository.addStockBatch(pending);
+                evict(pending.keySet());
+                publish(pending);
+            });
+        } catch (RuntimeException ex) {
+            flushFailures.increment();
+            log.warn("No se pudieron escribir {} devoluciones de stock; se reintentan", pending.size(), ex);
+            if (!returnLeases) {
+                long since = oldest == 0 ? System.nanoTime() : oldest;
+                pending.forEach((id, units) -> {
+                    HotStock stock = hot.get(id);
+                    stock.pending.addAndGet(units);
+                    stock.pendingSince.compareAndSet(0, since);
+                });
+            }
+            return;
+        }
+        flushes.increment();
+        if (oldest != 0) {
+            long lag = System.nanoTime() - oldest;
+            lastFlushLagNanos.set(lag);
+            maxFlushLagNanos.accumulateAndGet(lag, Math::max);
+        }
+    }
+
+    /**
+     * Publica las filas escritas por el batch, que no devuelve el resultado: una sola consulta por escritura.
+     */
+    private void publish(Map<Long, Integer> deltas) {
+        if (!deltas.isEmpty()) {
+            productoRepository.findResponsesByIdIn(deltas.keySet()).forEach(row ->
+                eventPublisher.publishEvent(ProductoChangedEvent.stock(row, deltas.get(row.id()))));
+        }
+    }
+
+    private void evict(Iterable<Long> ids) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager == null ? null : manager.getCache(CacheConfig.PRODUCTOS);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+
+    /**
+     * Arriendo local de un producto repartido en contadores, mas sus devoluciones pendientes.
+     */
+    private static final class HotStock {
+
+        private final int stripes;
+        private final AtomicLongArray budget;
+        private final ReentrantLock refill = new ReentrantLock();
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicLong pendingSince = new AtomicLong();
+        private volatile int rowStock;
+
+        private HotStock(int stripes) {
+            this.stripes = stripes;
+            this.budget = new AtomicLongArray(stripes * PAD);
+        }
+
+        /**
+         * Descuenta de un contador con saldo suficiente, empezando por el del hilo actual.
+         */
+        private boolean take(int cantidad) {
+            int start = (int) (Thread.currentThread().threadId() % stripes);
+            for (int i = 0; i < stripes; i++) {
+                int index = ((start + i) % stripes) * PAD;
+                long current = budget.get(index);
+                while (current >= cantidad) {
+                    if (budget.compareAndSet(index, current, current - cantidad)) {
+                        return true;
+                    }
+                    current = budget.get(index);
+                }
+            }
+            return false;
+        }
+
+        private long drain() {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += budget.getAndSet(i * PAD, 0);
+            }
+            return total;
+        }
+
+        private void spread(long units) {
+            for (int i = 0; i < stripes; i++) {
+                budget.addAndGet(i * PAD, units / stripes + (i < units % stripes ? 1 : 0));
+            }
+        }
+
+        private long budget() {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += budget.get(i * PAD);
+            }
+            return total;
+        }
+
+        private int estimate() {
+            return (int) (budget() + pending.get()) + rowStock;
+        }
+    }
+}
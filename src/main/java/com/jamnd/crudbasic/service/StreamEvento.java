@@ -0,0 +1,29 @@
+package com.jamnd.crudbasic.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Evento SSE ya serializado, compartido por todos los suscriptores.
+ *
+ * @param nombre nombre del evento: upsert, delete o resync
+ * @param id token del cambio, null si el evento no mueve la posicion del cliente
+ * @param data cuerpo JSON
+ */
+record StreamEvento(String nombre, String id, String data) {
+
+    /**
+     * Cambio masivo sin detalle (lote o importacion): el cliente debe pedir /changes desde su ultimo id.
+     */
+    static final StreamEvento RESYNC = new StreamEvento("resync", null, "{}");
+
+    /**
+     * Marca interna de fin de conexion, nunca se envia.
+     */
+    static final StreamEvento FIN = new StreamEvento("fin", null, "");
+
+    SseEmitter.SseEventBuilder toSse() {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(nombre).data(data, MediaType.APPLICATION_JSON);
+        return id == null ? builder : builder.id(id);
+    }
+}
@@ -0,0 +1,150 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.config.StreamProperties;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Conexion SSE con su buffer acotado.
+ * <p>
+ * El oyente de cambios solo encola sin bloquear; un hilo virtual por suscriptor envia en orden.
+ * Un cliente lento llena su buffer y se le aplica la politica de desborde sin afectar al resto.
+ * <p>
+ * Mientras se envian los cambios recuperados con Last-Event-ID, los eventos en vivo se retienen aparte
+ * (hasta {@code buffer-recuperacion}) y no cuentan contra el buffer: una recuperacion larga no
+ * desborda la conexion que se esta poniendo al dia.
+ */
+final class StreamSuscriptor {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<StreamEvento> cola;
+    private final StreamProperties.Desborde desborde;
+    private final long heartbeatMillis;
+    private final Consumer<StreamSuscriptor> alCerrar;
+    private final AtomicBoolean cerrado = new AtomicBoolean();
+    private final Queue<StreamEvento> diferidos = new ArrayDeque<>();
+    private final int maxDiferidos;
+    private volatile boolean recuperando;
+
+    StreamSuscriptor(SseEmitter emitter, StreamProperties properties, Consumer<StreamSuscriptor> alCerrar) {
+        this.emitter = emitter;
+        // Un lugar extra para que la marca de fin siempre entre.
+        this.cola = new ArrayBlockingQueue<>(properties.buffer() + 1);
+        this.desborde = properties.desborde();
+        this.maxDiferidos = properties.bufferRecuperacion();
+        this.heartbeatMillis = properties.heartbeat().toMillis();
+        this.alCerrar = alCerrar;
+    }
+
+    /**
+     * Retiene los eventos en vivo hasta terminar de enviar los recuperados. Se llama antes de
+     * registrar el suscriptor.
+     */
+    void diferirHastaRecuperar() {
+        recuperando = true;
+    }
+
+    /**
+     * Encola un evento sin bloquear.
+     *
+     * @param evento evento a enviar
+     * @return false si el buffer estaba lleno y se aplico la politica de desborde
+     */
+    boolean ofrecer(StreamEvento evento) {
+        if (cerrado.get() || encolar(evento)) {
+            return true;
+        }
+        if (desborde == StreamProperties.Desborde.DESCONECTAR) {
+            cerrar();
+        }
+        return false;
+    }
+
+    /**
+     * Termina la conexion: descarta lo pendiente y despierta al hilo de envio para que la complete.
+     * No toca el emisor, que puede estar bloqueado en una escritura.
+     */
+    void cerrar() {
+        if (cerrado.compareAndSet(false, true)) {
+            synchronized (diferidos) {
+                diferidos.clear();
+            }
+            cola.clear();
+            cola.offer(StreamEvento.FIN);
+            alCerrar.accept(this);
+        }
+    }
+
+    boolean isCerrado() {
+        return cerrado.get();
+    }
+
+    /**
+     * Envia primero los cambios recuperados y despues los encolados, hasta que se cierre la conexion.
+     *
+     * @param recuperados cambios posteriores al token del cliente, vacio sin token
+     */
+    void enviar(Iterator<StreamEvento> recuperados) {
+        try {
+            while (recuperados.hasNext() && !cerrado.get()) {
+                emitter.send(recuperados.next().toSse());
+            }
+            for (StreamEvento evento = siguienteDiferido(); evento != null && !cerrado.get();
+                 evento = siguienteDiferido()) {
+                emitter.send(evento.toSse());
+            }
+            while (true) {
+                StreamEvento evento = cola.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (evento == StreamEvento.FIN) {
+                    emitter.complete();
+                    return;
+                }
+                emitter.send(evento == null ? SseEmitter.event().comment("ping") : evento.toSse());
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // Cliente desconectado o emisor ya completado: el contenedor cierra la solicitud.
+            cerrar();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cerrar();
+            emitter.complete();
+        } catch (RuntimeException ex) {
+            cerrar();
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private boolean encolar(StreamEvento evento) {
+        if (recuperando) {
+            synchronized (diferidos) {
+                // Se vuelve a mirar con el bloqueo: el hilo de envio pudo terminar de recuperar.
+                if (recuperando) {
+                    return diferidos.size() < maxDiferidos && diferidos.add(evento);
+                }
+            }
+        }
+        return cola.remainingCapacity() > 1 && cola.offer(evento);
+    }
+
+    /**
+     * Toma el siguiente evento retenido; sin pendientes deja de retener y los nuevos van a la cola.
+     */
+    private StreamEvento siguienteDiferido() {
+        synchronized (diferidos) {
+            StreamEvento evento = diferidos.poll();
+            if (evento == null) {
+                recuperando = false;
+            }
+            return evento;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- Bajas de productos para GET /api/v1/productos/changes.
+-- El DELETE de un producto inserta su baja en la misma transaccion; las bajas se purgan
+-- pasada la retencion (app.productos.cambios.retencion-bajas).
+CREATE TABLE productos_bajas (
+    id BIGINT PRIMARY KEY,
+    sku VARCHAR(100) NOT NULL,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+-- Mismo recorrido que idx_productos_updated_at (V5): desde la posicion del token en orden de fecha e id.
+CREATE INDEX idx_productos_bajas_deleted_at ON productos_bajas (deleted_at, id);
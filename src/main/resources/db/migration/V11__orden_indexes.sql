@@ -0,0 +1,16 @@
+-- Un indice por campo ordenable (ProductoSortField) con id como desempate: ORDER BY campo, id en
+-- cualquier direccion se lee del indice y con LIMIT se detiene en la pagina pedida.
+-- updated_at ya tiene (updated_at, id) desde V5 e id es la clave primaria.
+
+-- Orden por defecto (createdAt,desc). INCLUDE agrega las columnas del listado para recorridos solo de
+-- indice; descripcion queda afuera porque es TEXT sin limite y una fila larga superaria el maximo
+-- de una entrada B-tree. Con fields sin descripcion, o con el conteo, no se lee la tabla.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_created_at
+    ON productos (created_at, id)
+    INCLUDE (sku, nombre, precio, stock, categoria, activo, updated_at, version);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_nombre_id
+    ON productos (nombre, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_precio_id
+    ON productos (precio, id);
@@ -0,0 +1,4 @@
+-- Valida contra las filas existentes la restriccion creada NOT VALID en V7. Corre fuera de la
+-- transaccion de Flyway: VALIDATE solo toma SHARE UPDATE EXCLUSIVE, que no impide lecturas ni
+-- escrituras mientras se recorre la tabla.
+ALTER TABLE productos VALIDATE CONSTRAINT ck_productos_stock_no_negativo;
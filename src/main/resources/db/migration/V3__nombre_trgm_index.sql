@@ -0,0 +1,8 @@
+-- Busqueda contains por nombre (LOWER(nombre) LIKE '%texto%') servida por indice trigram.
+-- El B-tree idx_productos_nombre_lower no sirve para comodines al inicio, por eso se reemplaza.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_nombre_trgm
+    ON productos USING gin (LOWER(nombre) gin_trgm_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_productos_nombre_lower;
@@ -0,0 +1,5 @@
+-- Hibernate usa un optimizador pooled sobre productos_id_seq (allocationSize = 50):
+-- cada nextval reserva un bloque de 50 ids y permite agrupar INSERTs en batches JDBC.
+-- Los INSERT que usan el DEFAULT de la columna solo consumen el valor alto del bloque,
+-- por lo que no colisionan con los ids reservados por Hibernate.
+ALTER SEQUENCE productos_id_seq INCREMENT BY 50;
@@ -0,0 +1,4 @@
+-- Soporta MAX(updated_at) del ETag de listados sin recorrer la tabla.
+-- El id como segunda columna deja el indice listo para recorridos ordenados por fecha de cambio.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_updated_at
+    ON productos (updated_at, id);
@@ -0,0 +1,3 @@
+-- Columna de bloqueo optimista (@Version) para PATCH con If-Match.
+-- En PostgreSQL 11+ agregar una columna con DEFAULT constante no reescribe la tabla.
+ALTER TABLE productos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
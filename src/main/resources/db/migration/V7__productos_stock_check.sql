@@ -0,0 +1,5 @@
+-- Red de seguridad para las reservas atomicas: ningun UPDATE puede dejar stock negativo.
+-- NOT VALID evita el bloqueo largo al crearla: solo se revisan las filas nuevas o modificadas.
+-- Las existentes se validan en V12, en su propia transaccion, para no retener el ACCESS EXCLUSIVE
+-- de este ALTER mientras se recorre la tabla.
+ALTER TABLE productos ADD CONSTRAINT ck_productos_stock_no_negativo CHECK (stock >= 0) NOT VALID;
@@ -0,0 +1,4 @@
+-- Soporta los conteos GROUP BY categoria del endpoint de facets con un recorrido solo de indice.
+-- activo como segunda columna permite contar los activos sin leer la tabla.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_categoria_activo
+    ON productos (categoria, activo);
@@ -0,0 +1,10 @@
+-- Filtro por categoria con rango de precio: igualdad en la primera columna y rango en la segunda.
+-- Tambien sirve a categoria sola y a categoria con activo (activo se evalua sobre las filas del indice).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_categoria_precio
+    ON productos (categoria, precio);
+
+-- Catalogo visible por rango de precio sin categoria. Parcial: los inactivos nunca entran al indice,
+-- que queda mas chico. Solo se usa si la consulta lleva activo = true como literal.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_productos_activos_precio
+    ON productos (precio)
+    WHERE activo = true;
@@ -0,0 +1,167 @@
+package com.jamnd.crudbasic.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ruteo con dos bases H2 independientes: cada una responde su propio nombre en la tabla {@code nodo}.
+ */
+class ReplicaRouterTest {
+
+    private final List<ReplicaRouter> routers = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        routers.forEach(ReplicaRouter::close);
+    }
+
+    @Test
+    void lecturasVanALaReplicaYEscriturasAlPrimario() {
+        Fixture fixture = fixture(database("replica"));
+
+        assertThat(fixture.leer()).isEqualTo("replica");
+        assertThat(fixture.escribirYLeer()).isEqualTo("primario");
+        try (ReplicaRouter.PrimaryScope ignored = ReplicaRouter.usePrimary()) {
+            assertThat(fixture.leer()).isEqualTo("primario");
+        }
+        assertThat(fixture.leer()).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaCaidaDebeCaerAlPrimario() {
+        Fixture fixture = fixture("jdbc:h2:tcp://localhost:1/sin-servidor");
+
+        assertThat(fixture.leer()).isEqualTo("primario");
+        fixture.router.checkHealth();
+        assertThat(fixture.leer()).isEqualTo("primario");
+    }
+
+    @Test
+    void clienteQueEscribioDebeLeerDelPrimarioHastaQueVenzaLaVentana() throws Exception {
+        Fixture fixture = fixture(database("replica"));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+        List<String> leidos = new ArrayList<>();
+
+        MockHttpServletResponse escritura = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/productos"), escritura,
+            (request, response) -> fixture.escribirYLeer());
+        Cookie cookie = escritura.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(cookie).isNotNull();
+
+        MockHttpServletRequest conCookie = new MockHttpServletRequest("GET", "/api/v1/productos/1");
+        conCookie.setCookies(cookie);
+        filter.doFilter(conCookie, new MockHttpServletResponse(), (request, response) -> leidos.add(fixture.leer()));
+        MockHttpServletRequest vencida = new MockHttpServletRequest("GET", "/api/v1/productos/1");
+        vencida.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, "1"));
+        filter.doFilter(vencida, new MockHttpServletResponse(), (request, response) -> leidos.add(fixture.leer()));
+
+        assertThat(leidos).containsExactly("primario", "replica");
+    }
+
+    @Test
+    void poolsDelPrimarioYLasReplicasDebenPublicarMetricasHikari() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        // Spring Boot usa "sa" como usuario de una H2 en memoria; la replica hereda el del primario.
+        dataSourceProperties.setUrl(database("primario", "sa"));
+        ReplicaRouter router = new ReplicaRoutingConfig().replicaRouter(
+            dataSourceProperties,
+            properties(database("replica", "sa")),
+            new MockEnvironment().withProperty("spring.datasource.hikari.pool-name", "primario"),
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+        routers.add(router);
+        Fixture fixture = new Fixture(router, dataSource(router));
+
+        assertThat(fixture.leer()).isEqualTo("replica");
+        assertThat(fixture.escribirYLeer()).isEqualTo("primario");
+        assertThat(registry.find("hikaricp.connections.active").gauges())
+            .extracting(gauge -> gauge.getId().getTag("pool"))
+            .containsExactlyInAnyOrder("primario", "replica-1");
+    }
+
+    private Fixture fixture(String replicaUrl) {
+        HikariDataSource primary = new HikariDataSource();
+        primary.setJdbcUrl(database("primario"));
+        ReplicaRouter router = new ReplicaRouter(primary, properties(replicaUrl));
+        routers.add(router);
+        return new Fixture(router, dataSource(router));
+    }
+
+    private static ReplicaProperties properties(String replicaUrl) {
+        return new ReplicaProperties(
+            true,
+            List.of(new ReplicaProperties.Nodo("replica-1", replicaUrl, null, null)),
+            Duration.ofSeconds(5),
+            Duration.ofMillis(250),
+            true,
+            Duration.ofSeconds(5));
+    }
+
+    private static LazyConnectionDataSourceProxy dataSource(ReplicaRouter router) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(router.primary());
+        dataSource.setReadOnlyDataSource(router.readDataSource());
+        return dataSource;
+    }
+
+    private static String database(String nombre) {
+        return database(nombre, "");
+    }
+
+    private static String database(String nombre, String usuario) {
+        String url = "jdbc:h2:mem:" + nombre + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, usuario, ""));
+        jdbc.execute("CREATE TABLE nodo (nombre VARCHAR(20))");
+        jdbc.update("INSERT INTO nodo VALUES (?)", nombre);
+        return url;
+    }
+
+    private static final class Fixture {
+
+        private final ReplicaRouter router;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate lectura;
+        private final TransactionTemplate escritura;
+
+        private Fixture(ReplicaRouter router, LazyConnectionDataSourceProxy dataSource) {
+            this.router = router;
+            this.jdbc = new JdbcTemplate(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.lectura = new TransactionTemplate(transactionManager);
+            this.lectura.setReadOnly(true);
+            this.escritura = new TransactionTemplate(transactionManager);
+        }
+
+        private String leer() {
+            return lectura.execute(status -> jdbc.queryForObject("SELECT nombre FROM nodo", String.class));
+        }
+
+        private String escribirYLeer() {
+            return escritura.execute(status -> {
+                jdbc.update("UPDATE nodo SET nombre = nombre");
+                return jdbc.queryForObject("SELECT nombre FROM nodo", String.class);
+            });
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package com.jamnd.crudbasic.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamnd.crudbasic.dto.CatalogVersion;
+import com.jamnd.crudbasic.dto.CategoriaFacet;
+import com.jamnd.crudbasic.dto.FacetsResponse;
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoFilter;
 import com.jamnd.crudbasic.dto.ProductoRequest;
 import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.TotalMode;
 import com.jamnd.crudbasic.exception.GlobalExceptionHandler;
 import com.jamnd.crudbasic.exception.ResourceNotFoundException;
+import com.jamnd.crudbasic.service.ProductoExportService;
+import com.jamnd.crudbasic.service.ProductoFacetService;
+import com.jamnd.crudbasic.service.ProductoImportService;
 import com.jamnd.crudbasic.service.ProductoService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,18 +24,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +58,15 @@ class ProductoControllerTest {
     @MockBean
     private ProductoService productoService;
 
+    @MockitoBean
+    private ProductoImportService productoImportService;
+
+    @MockitoBean
+    private ProductoExportService productoExportService;
+
+    @MockitoBean
+    private ProductoFacetService productoFacetService;
+
     @Test
     void createDebeRetornar400CuandoFaltanCampos() throws Exception {
         ProductoRequest request = new ProductoRequest(
@@ -66,13 +90,18 @@ class ProductoControllerTest {
     @Test
     void findAllDebeRetornarPaginaConMetadata() throws Exception {
         ProductoResponse response = buildResponse(1L, "SKU-PAG", "Producto Paginado");
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
         Page<ProductoResponse> page = new PageImpl<>(
             List.of(response),
-            PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt")),
+            PageRequest.of(0, 10, sort),
             1
         );
-        when(productoService.findAll("prod", PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"))))
-            .thenReturn(page);
+        when(productoService.findAll(
+            ProductoFilter.porNombre("prod"),
+            PageRequest.of(0, 10, sort),
+            TotalMode.EXACT
+        )).thenReturn(PageResponse.fromPage(page));
+        when(productoService.findVersion(ProductoFilter.porNombre("prod"))).thenReturn(new CatalogVersion(1, response.updatedAt()));
 
         mockMvc.perform(get("/api/v1/productos")
                 .param("page", "0")
@@ -87,6 +116,45 @@ class ProductoControllerTest {
             .andExpect(jsonPath("$.totalPages").value(1));
     }
 
+    @Test
+    void findAllDebeRechazarOrdenNoSoportadoAntesDeConsultar() throws Exception {
+        mockMvc.perform(get("/api/v1/productos")
+                .param("sort", "descripcion,asc"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value(
+                "No se puede ordenar por descripcion. Campos soportados: [createdAt, updatedAt, nombre, precio, id]"));
+        mockMvc.perform(get("/api/v1/productos")
+                .param("sort", "precio,arriba"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Direccion de orden invalida: arriba"));
+
+        verifyNoInteractions(productoService);
+    }
+
+    @Test
+    void findAllDebeRetornar400CuandoTotalModeInvalido() throws Exception {
+        mockMvc.perform(get("/api/v1/productos")
+                .param("totalMode", "aproximado"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void findByIdDebeResponder304CuandoElEtagCoincide() throws Exception {
+        ProductoResponse response = buildResponse(5L, "SKU-ETAG", "Producto Etag");
+        when(productoService.findById(5L)).thenReturn(response);
+
+        String etag = mockMvc.perform(get("/api/v1/productos/5"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/productos/5").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+    }
+
     @Test
     void findByIdDebeRetornar404CuandoNoExiste() throws Exception {
         doThrow(new ResourceNotFoundException("Producto no encontrado con id: 99"))
@@ -110,7 +178,57 @@ class ProductoControllerTest {
             "Categoria",
             true,
             now,
-            now
+            now,
+            0L
         );
     }
+
+    @Test
+    void findFacetsDebeRetornarConteosPorCategoria() throws Exception {
+        when(productoFacetService.findFacets(false, List.of(new BigDecimal("10"))))
+            .thenReturn(new FacetsResponse(List.of(new CategoriaFacet("Hogar", 3, 2)), List.of()));
+
+        mockMvc.perform(get("/api/v1/productos/facets").param("precios", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.categorias[0].categoria").value("Hogar"))
+            .andExpect(jsonPath("$.categorias[0].total").value(3))
+            .andExpect(jsonPath("$.categorias[0].activos").value(2));
+    }
+
+    @Test
+    void findFacetsDebeRetornar400ConDemasiadosLimites() throws Exception {
+        String precios = String.join(",", Collections.nCopies(21, "1"));
+
+        mockMvc.perform(get("/api/v1/productos/facets").param("precios", precios))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAllDebePasarTodosLosFiltrosAlServicio() throws Exception {
+        ProductoFilter filtro = new ProductoFilter(
+            null, "Hogar", true, new BigDecimal("10"), new BigDecimal("50"), 1);
+        PageRequest pageable = PageRequest.of(0, 10,
+            Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        when(productoService.findVersion(filtro)).thenReturn(new CatalogVersion(0, null));
+        when(productoService.findAll(filtro, pageable, TotalMode.EXACT))
+            .thenReturn(PageResponse.fromPage(new PageImpl<>(List.of(), pageable, 0)));
+
+        mockMvc.perform(get("/api/v1/productos")
+                .param("categoria", "Hogar")
+                .param("activo", "true")
+                .param("precioMin", "10")
+                .param("precioMax", "50")
+                .param("stockMin", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void findAllDebeRetornar400ConRangoDePrecioInvertido() throws Exception {
+        mockMvc.perform(get("/api/v1/productos")
+                .param("precioMin", "50")
+                .param("precioMax", "10"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("precioMin no puede ser mayor que precioMax"));
+    }
 }
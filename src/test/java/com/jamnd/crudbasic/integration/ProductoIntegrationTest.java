@@ -2,32 +2,68 @@ package com.jamnd.crudbasic.integration;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.jamnd.crudbasic.controller.ProductoController;
 import com.jamnd.crudbasic.dto.ProductoRequest;
+import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.ProductoSortField;
 import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.event.ProductoChangedEvent;
+import com.jamnd.crudbasic.mapper.ProductoJsonCache;
+import com.jamnd.crudbasic.repository.ProductoBajaRepository;
 import com.jamnd.crudbasic.repository.ProductoRepository;
+import com.jamnd.crudbasic.service.ProductoStreamServiceImpl;
+import com.jamnd.crudbasic.service.StockLeaseManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
 @ActiveProfiles("test")
 class ProductoIntegrationTest {
 
@@ -40,9 +76,32 @@ class ProductoIntegrationTest {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private ProductoBajaRepository productoBajaRepository;
+
+    @Autowired
+    private StockLeaseManager stockLeaseManager;
+
+    @Autowired
+    private ProductoStreamServiceImpl streamService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void cleanData() {
-        productoRepository.deleteAll();
+        // El borrado no pasa por el servicio: se avisa a los oyentes para que descarten sus conteos.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productoRepository.deleteAll();
+            productoBajaRepository.deleteAll();
+            eventPublisher.publishEvent(ProductoChangedEvent.bulk());
+        });
     }
 
     @Test
@@ -117,12 +176,51 @@ class ProductoIntegrationTest {
             .andExpect(jsonPath("$.totalElements").value(2))
             .andExpect(jsonPath("$.totalPages").value(2));
 
+        mockMvc.perform(get("/api/v1/productos")
+                .param("page", "0")
+                .param("size", "1")
+                .param("totalMode", "none"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(-1))
+            .andExpect(jsonPath("$.hasNext").value(true));
+
+        mockMvc.perform(get("/api/v1/productos")
+                .param("size", "1")
+                .param("totalMode", "estimated"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(2));
+
         mockMvc.perform(get("/api/v1/productos")
                 .param("nombre", "mou"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.content.length()").value(1))
             .andExpect(jsonPath("$.content[0].nombre").value("Mouse Gamer Pro"));
 
+        mockMvc.perform(get("/api/v1/productos")
+                .param("nombre", "MOUSE g"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(1));
+
+        mockMvc.perform(get("/api/v1/productos")
+                .param("nombre", "%"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(0));
+
+        mockMvc.perform(get("/api/v1/productos")
+                .param("nombre", "mou")
+                .param("fields", "sku,precio"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].id").isNumber())
+            .andExpect(jsonPath("$.content[0].sku").value("SKU-INT-1"))
+            .andExpect(jsonPath("$.content[0].nombre").doesNotExist())
+            .andExpect(jsonPath("$.content[0].descripcion").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/productos")
+                .param("fields", "sku,password"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+
         ProductoRequest invalidRequest = new ProductoRequest(
             "",
             "",
@@ -143,5 +241,1139 @@ class ProductoIntegrationTest {
             .andExpect(status().isNoContent());
 
         assertThat(productoRepository.findById(createdId)).isEmpty();
+
+        mockMvc.perform(get("/api/v1/concurrencia/jdbc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.enabled").value(true))
+            .andExpect(jsonPath("$.available").value(10))
+            .andExpect(jsonPath("$.rejectedCount").value(0))
+            .andExpect(jsonPath("$.acquiredCount", greaterThan(0)));
+    }
+
+    @Test
+    void createConcurrenteDelMismoSkuDebeCrearSoloUno() throws Exception {
+        String body = objectMapper.writeValueAsString(new ProductoRequest(
+            "SKU-RACE-1", "Carrera", null, new BigDecimal("10.00"), 1, null, true));
+        int intentos = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(intentos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < intentos; i++) {
+                resultados.add(executor.submit(() -> {
+                    inicio.await();
+                    return mockMvc.perform(post("/api/v1/productos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                        .andReturn().getResponse().getStatus();
+                }));
+            }
+            inicio.countDown();
+            List<Integer> estados = new ArrayList<>();
+            for (Future<Integer> resultado : resultados) {
+                estados.add(resultado.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(estados).containsOnly(201, 409).filteredOn(estado -> estado == 201).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(productoRepository.findBySkuIn(List.of("SKU-RACE-1"))).hasSize(1);
+    }
+
+    @Test
+    void reservaConcurrenteNuncaDebeDejarStockNegativo() throws Exception {
+        Producto producto = buildProducto("SKU-HOT-1", "Caliente");
+        producto.setStock(50);
+        Long id = productoRepository.save(producto).getId();
+        String body = stockBody(id, 1);
+        int intentos = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < intentos; i++) {
+                resultados.add(executor.submit(() -> {
+                    inicio.await();
+                    return mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                        .andReturn().getResponse().getStatus();
+                }));
+            }
+            inicio.countDown();
+            List<Integer> estados = new ArrayList<>();
+            for (Future<Integer> resultado : resultados) {
+                estados.add(resultado.get(60, TimeUnit.SECONDS));
+            }
+            assertThat(estados).containsOnly(200, 409);
+            assertThat(estados).filteredOn(estado -> estado == 200).hasSize(50);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(productoRepository.findStockById(id)).contains(0);
+    }
+
+    @Test
+    void reservaMultiLineaDebeAplicarTodoONada() throws Exception {
+        Producto primero = buildProducto("SKU-RES-1", "Primero");
+        primero.setStock(5);
+        Producto segundo = buildProducto("SKU-RES-2", "Segundo");
+        segundo.setStock(2);
+        Long id1 = productoRepository.save(primero).getId();
+        Long id2 = productoRepository.save(segundo).getId();
+
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"lineas\":[{\"id\":" + id1 + ",\"cantidad\":3},{\"id\":" + id2 + ",\"cantidad\":3}]}"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value(
+                "Stock insuficiente para el producto " + id2 + ": solicitado 3, disponible 2"));
+        assertThat(productoRepository.findStockById(id1)).contains(5);
+
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"lineas\":[{\"id\":" + id1 + ",\"cantidad\":3},{\"id\":" + id2 + ",\"cantidad\":2},"
+                    + "{\"id\":" + id1 + ",\"cantidad\":1}]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lineas.length()").value(2))
+            .andExpect(jsonPath("$.lineas[0].cantidad").value(4))
+            .andExpect(jsonPath("$.lineas[0].stock").value(1))
+            .andExpect(jsonPath("$.lineas[1].stock").value(0));
+
+        mockMvc.perform(post("/api/v1/productos/stock/release")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(id2, 2)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lineas[0].stock").value(2));
+
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(999_999L, 1)))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(id1, 0)))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id2))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.stock").value(2))
+            .andExpect(jsonPath("$.version").value(2));
+    }
+
+    @Test
+    void reservaConArriendoNuncaDebeVenderMasQueLaFila() throws Exception {
+        Producto producto = buildProducto("SKU-LEASE-1", "Arrendado");
+        producto.setStock(95);
+        Long id = productoRepository.save(producto).getId();
+        stockLeaseManager.flush();
+        String body = stockBody(id, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                resultados.add(executor.submit(() -> {
+                    inicio.await();
+                    return mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                        .andReturn().getResponse().getStatus();
+                }));
+            }
+            inicio.countDown();
+            List<Integer> estados = new ArrayList<>();
+            for (Future<Integer> resultado : resultados) {
+                estados.add(resultado.get(60, TimeUnit.SECONDS));
+            }
+            assertThat(estados).containsOnly(200, 409);
+            assertThat(estados).filteredOn(estado -> estado == 200).hasSize(95);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(productoRepository.findStockById(id)).contains(0);
+
+        mockMvc.perform(post("/api/v1/productos/stock/release")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(id, 3)))
+            .andExpect(status().isOk());
+        assertThat(productoRepository.findStockById(id)).contains(0);
+
+        stockLeaseManager.flush();
+        assertThat(productoRepository.findStockById(id)).contains(3);
+        mockMvc.perform(get("/api/v1/productos/stock/lease"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.enabled").value(true))
+            .andExpect(jsonPath("$.leasedUnits").value(0))
+            .andExpect(jsonPath("$.pendingUnits").value(0))
+            .andExpect(jsonPath("$.flushCount", greaterThan(0)))
+            .andExpect(jsonPath("$.leaseExhaustedCount", greaterThan(0)));
+    }
+
+    @Test
+    void arriendoDebeInvalidarLaCacheYDevolverseAunqueLaFilaCambie() throws Exception {
+        Producto producto = buildProducto("SKU-LEASE-1", "Arrendado");
+        producto.setStock(50);
+        Long id = productoRepository.save(producto).getId();
+        stockLeaseManager.flush();
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(jsonPath("$.stock").value(50));
+
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(id, 1)))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(jsonPath("$.stock").value(40));
+
+        // Sin otras escrituras el arriendo sin usar vuelve a la fila.
+        stockLeaseManager.close();
+        assertThat(productoRepository.findStockById(id)).contains(49);
+
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(id, 1)))
+            .andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductoRequest(
+                    "SKU-LEASE-1", "Arrendado", null, new BigDecimal("10.00"), 20, null, true))))
+            .andExpect(status().isOk());
+
+        // Las 9 unidades arrendadas salieron de la fila antes del PUT: vuelven sumadas sobre el stock nuevo.
+        stockLeaseManager.close();
+        assertThat(productoRepository.findStockById(id)).contains(29);
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(jsonPath("$.stock").value(29));
+    }
+
+    @Test
+    void prometheusDebePublicarAciertosYFallosDeLaCacheJson() throws Exception {
+        productoRepository.save(buildProducto("SKU-MET-JSON-1", "Fragmento"));
+        // La primera pagina serializa y llena la cache; la segunda copia el fragmento.
+        mockMvc.perform(get("/api/v1/productos").param("nombre", "Fragmento")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/productos").param("nombre", "Fragmento")).andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(metrics.lines()
+            .filter(line -> line.startsWith("cache_gets_total{") && line.contains("cache=\"productos-json\"")))
+            .anyMatch(line -> line.contains("result=\"hit\""))
+            .anyMatch(line -> line.contains("result=\"miss\""));
+        assertThat(metrics).contains("cache_gets_total{")
+            .contains("cache=\"productos\"");
+    }
+
+    @Test
+    void prometheusDebePublicarMetricasDeHttpServicioPoolHibernateYErrores() throws Exception {
+        Long id = productoRepository.save(buildProducto("SKU-MET-1", "Metricas")).getId();
+        mockMvc.perform(get("/api/v1/productos/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/productos/{id}", 999_999L)).andExpect(status().isNotFound());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(metrics)
+            .contains("http_server_requests_seconds_bucket{")
+            .contains("uri=\"/api/v1/productos/{id}\"")
+            .contains("productos_service_seconds_bucket{")
+            .contains("method=\"findById\"")
+            .contains("hikaricp_connections_active{")
+            .contains("hibernate_query_executions_total{")
+            .contains("hibernate_entities_loads_total{")
+            .contains("hibernate_flushes_total{")
+            .contains("api_errors_total{application=\"crud-basic\",exception=\"ResourceNotFoundException\",status=\"404\"}")
+            .contains("jdbc_gate_available{")
+            .contains("jdbc_gate_wait_seconds_bucket{")
+            .contains("stock_lease_leases_total{")
+            .contains("cache_gets_total{")
+            .contains("http_server_requests_sql_statements_count{");
+    }
+
+    @Test
+    void cadaEndpointDebeEjecutarLaCantidadEsperadaDeSentencias() throws Exception {
+        // Los ids salen de bloques de 50 de la secuencia (V4): si este alta cierra un bloque,
+        // se hace otra para que el POST medido no tenga que leer la secuencia.
+        Long previo = productoRepository.save(buildProducto("SKU-SQL-0", "Calentamiento")).getId();
+        if (previo % 50 == 1) {
+            productoRepository.save(buildProducto("SKU-SQL-00", "Calentamiento"));
+        }
+
+        String location = mockMvc.perform(post("/api/v1/productos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductoRequest(
+                    "SKU-SQL-1", "Consultas", null, new BigDecimal("10.00"), 5, null, true))))
+            .andExpect(status().isCreated())
+            .andExpect(SqlStatements.atMost(1))
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        Long id = Long.valueOf(location.substring(location.lastIndexOf('/') + 1));
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.exactly(1));
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.exactly(0));
+        // Version para el ETag mas la pagina; el COUNT se omite porque la pagina no se llena.
+        mockMvc.perform(get("/api/v1/productos").param("size", "5"))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.exactly(2));
+        // Sin total exacto no se consulta la version: el ETag sale de la pagina.
+        mockMvc.perform(get("/api/v1/productos").param("size", "5").param("totalMode", "none"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(SqlStatements.exactly(1));
+        mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\": 7}"))
+            .andExpect(status().isOk())
+            // UPDATE con version mas la proyeccion de la respuesta.
+            .andExpect(SqlStatements.exactly(2));
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(id, 1)))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.exactly(1));
+        mockMvc.perform(delete("/api/v1/productos/{id}", id))
+            .andExpect(status().isNoContent())
+            // SELECT, DELETE y el INSERT de la baja para el feed de cambios.
+            .andExpect(SqlStatements.exactly(3));
+    }
+
+    @Test
+    void facetsDebeContarPorCategoriaYPrecioYAjustarseSinConsultar() throws Exception {
+        Long hogarActivo = createProducto(new ProductoRequest(
+            "SKU-FACET-1", "Lampara", null, new BigDecimal("5.00"), 1, "Hogar", true));
+        Long hogarInactivo = createProducto(new ProductoRequest(
+            "SKU-FACET-2", "Silla", null, new BigDecimal("20.00"), 1, "Hogar", false));
+        Long oficina = createProducto(new ProductoRequest(
+            "SKU-FACET-3", "Escritorio", null, new BigDecimal("60.00"), 1, "Oficina", true));
+
+        mockMvc.perform(get("/api/v1/productos/facets").param("precios", "50,10"))
+            .andExpect(status().isOk())
+            // Una consulta GROUP BY por categoria y una con sumas condicionales por rango.
+            .andExpect(SqlStatements.exactly(2))
+            .andExpect(jsonPath("$.categorias.length()").value(2))
+            .andExpect(jsonPath("$.categorias[0].categoria").value("Hogar"))
+            .andExpect(jsonPath("$.categorias[0].total").value(2))
+            .andExpect(jsonPath("$.categorias[0].activos").value(1))
+            .andExpect(jsonPath("$.categorias[1].categoria").value("Oficina"))
+            .andExpect(jsonPath("$.precios[0].hasta").value(10))
+            .andExpect(jsonPath("$.precios[0].total").value(1))
+            .andExpect(jsonPath("$.precios[1].desde").value(10))
+            .andExpect(jsonPath("$.precios[1].total").value(1))
+            .andExpect(jsonPath("$.precios[2].desde").value(50))
+            .andExpect(jsonPath("$.precios[2].total").value(1));
+        mockMvc.perform(get("/api/v1/productos/facets").param("precios", "10,50.00"))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.exactly(0));
+        mockMvc.perform(get("/api/v1/productos/facets").param("soloActivos", "true").param("precios", "10,50"))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.exactly(1))
+            .andExpect(jsonPath("$.precios[1].total").value(0));
+
+        // Cambio de categoria y baja: los conteos se ajustan con el evento, sin volver a consultar.
+        mockMvc.perform(put("/api/v1/productos/{id}", hogarInactivo)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductoRequest(
+                    "SKU-FACET-2", "Silla", null, new BigDecimal("20.00"), 1, "Oficina", false))))
+            .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/productos/{id}", oficina))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/productos/facets"))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.exactly(0))
+            .andExpect(jsonPath("$.categorias[0].categoria").value("Hogar"))
+            .andExpect(jsonPath("$.categorias[0].total").value(1))
+            .andExpect(jsonPath("$.categorias[1].categoria").value("Oficina"))
+            .andExpect(jsonPath("$.categorias[1].total").value(1))
+            .andExpect(jsonPath("$.categorias[1].activos").value(0));
+        mockMvc.perform(get("/api/v1/productos/facets").param("soloActivos", "true"))
+            .andExpect(SqlStatements.exactly(0))
+            .andExpect(jsonPath("$.categorias.length()").value(1));
+
+        // PATCH no conoce el estado anterior: descarta los conteos y el siguiente GET vuelve a contar.
+        mockMvc.perform(patch("/api/v1/productos/{id}", hogarActivo)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"categoria\": \"Oficina\"}"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/productos/facets"))
+            .andExpect(SqlStatements.exactly(1))
+            .andExpect(jsonPath("$.categorias.length()").value(1))
+            .andExpect(jsonPath("$.categorias[0].total").value(2))
+            .andExpect(jsonPath("$.categorias[0].activos").value(1));
+    }
+
+    @Test
+    void filtrosDebenCombinarseYUsarIndiceSinRecorrerLaTabla() throws Exception {
+        createProducto(new ProductoRequest("SKU-FILTRO-1", "Lampara", null, new BigDecimal("5.00"), 0, "Hogar", true));
+        createProducto(new ProductoRequest("SKU-FILTRO-2", "Silla", null, new BigDecimal("20.00"), 4, "Hogar", true));
+        createProducto(new ProductoRequest("SKU-FILTRO-3", "Mesa", null, new BigDecimal("25.00"), 4, "Hogar", false));
+        createProducto(new ProductoRequest(
+            "SKU-FILTRO-4", "Escritorio", null, new BigDecimal("22.00"), 9, "Oficina", true));
+
+        mockMvc.perform(get("/api/v1/productos")
+                .param("categoria", "Hogar")
+                .param("activo", "true")
+                .param("precioMin", "10")
+                .param("precioMax", "30")
+                .param("stockMin", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].sku").value("SKU-FILTRO-2"));
+        mockMvc.perform(get("/api/v1/productos").param("activo", "false"))
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].sku").value("SKU-FILTRO-3"));
+
+        // Cada combinacion con categoria debe resolverse con un indice (V8/V9), nunca con tableScan.
+        // El parcial de activos por precio (V9) no existe en H2 y solo se verifica en PostgreSQL.
+        List<Map<String, String>> combinaciones = List.of(
+            Map.of("categoria", "Hogar"),
+            Map.of("categoria", "Hogar", "activo", "true"),
+            Map.of("categoria", "Hogar", "precioMin", "10", "precioMax", "30"),
+            Map.of("categoria", "Hogar", "activo", "true", "precioMin", "10", "stockMin", "1"));
+        for (Map<String, String> params : combinaciones) {
+            var request = get("/api/v1/productos").param("totalMode", "exact").param("size", "1");
+            params.forEach(request::param);
+            List<String> selects = capturarSelects(request);
+            assertThat(selects).as("consultas de %s", params).isNotEmpty();
+            for (String sql : selects) {
+                String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                assertThat(plan).as("plan de %s", params)
+                    .doesNotContain("tableScan")
+                    .contains("idx_productos_categoria_");
+            }
+        }
+    }
+
+    @Test
+    void ordenesSoportadosDebenLeerseDeUnIndiceYLosDemasRechazarseSinConsultar() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            productoRepository.save(buildProducto("SKU-ORDEN-" + i, "Orden " + i));
+        }
+        for (ProductoSortField field : ProductoSortField.values()) {
+            for (String direccion : List.of("asc", "desc")) {
+                String sort = field.property() + "," + direccion;
+                for (boolean porCursor : List.of(true, false)) {
+                    var request = get("/api/v1/productos").param("sort", sort).param("size", "2")
+                        .param("totalMode", "none");
+                    if (porCursor) {
+                        request.param("cursor", "");
+                    }
+                    List<String> ordenados = capturarSelects(request).stream()
+                        .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("order by"))
+                        .toList();
+                    assertThat(ordenados).as("consultas de %s", sort).hasSize(1);
+                    // El desempate por id va en la misma direccion, asi el indice (campo, id) da el orden.
+                    assertThat(jdbcTemplate.queryForObject("EXPLAIN " + ordenados.getFirst(), String.class))
+                        .as("plan de %s, cursor %s", sort, porCursor)
+                        .doesNotContain("tableScan")
+                        .contains("index sorted");
+                }
+            }
+        }
+
+        for (String sort : List.of("descripcion,asc", "stock,desc", "precio,arriba", "precio,asc,id")) {
+            assertThat(capturarSelects(get("/api/v1/productos").param("sort", sort), status().isBadRequest()))
+                .as("consultas de %s", sort)
+                .isEmpty();
+        }
+    }
+
+    @Test
+    void paginacionPorCursorDebeRecorrerTodoSinRepetir() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 10, 0);
+        for (int i = 1; i <= 5; i++) {
+            Producto producto = new Producto();
+            producto.setSku("SKU-CUR-" + i);
+            producto.setNombre("Cursor " + i);
+            producto.setPrecio(new BigDecimal("10.00"));
+            producto.setStock(1);
+            producto.setActivo(true);
+            productoRepository.save(producto);
+        }
+        // Dos productos con el mismo createdAt obligan a desempatar por id.
+        productoRepository.findAll().forEach(producto -> {
+            producto.setCreatedAt(producto.getSku().endsWith("5") ? base : base.plusMinutes(producto.getId() % 2));
+            productoRepository.save(producto);
+        });
+
+        List<String> skus = new ArrayList<>();
+        String cursor = "";
+        do {
+            MvcResult result = mockMvc.perform(get("/api/v1/productos")
+                    .param("size", "2")
+                    .param("sort", "createdAt,desc")
+                    .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(-1))
+                .andReturn();
+            JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+            json.get("content").forEach(item -> skus.add(item.get("sku").asText()));
+            cursor = json.get("nextCursor").isNull() ? null : json.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(skus).hasSize(5).doesNotHaveDuplicates();
+
+        List<String> partialSkus = new ArrayList<>();
+        cursor = "";
+        do {
+            MvcResult result = mockMvc.perform(get("/api/v1/productos")
+                    .param("size", "2")
+                    .param("sort", "createdAt,desc")
+                    .param("fields", "sku")
+                    .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].nombre").doesNotExist())
+                .andReturn();
+            JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+            json.get("content").forEach(item -> partialSkus.add(item.get("sku").asText()));
+            cursor = json.get("nextCursor").isNull() ? null : json.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(partialSkus).isEqualTo(skus);
+
+        mockMvc.perform(get("/api/v1/productos")
+                .param("cursor", "no-es-un-cursor"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void createBatchDebeInsertarValidosYReportarRechazados() throws Exception {
+        List<ProductoRequest> lote = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            lote.add(new ProductoRequest(
+                "SKU-LOTE-" + i, "Lote " + i, null, new BigDecimal("5.00"), i, "Lote", true));
+        }
+        lote.add(new ProductoRequest("SKU-LOTE-0", "Repetido", null, new BigDecimal("5.00"), 1, "Lote", true));
+        lote.add(new ProductoRequest("SKU-LOTE-X", "", null, null, 1, "Lote", true));
+
+        mockMvc.perform(post("/api/v1/productos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lote)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(122))
+            .andExpect(jsonPath("$.created").value(120))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.items[0].id").isNumber())
+            .andExpect(jsonPath("$.items[120].status").value("DUPLICATE"))
+            .andExpect(jsonPath("$.items[121].status").value("INVALID"));
+
+        assertThat(productoRepository.count()).isEqualTo(120);
+
+        mockMvc.perform(post("/api/v1/productos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importDebeInsertarActualizarYRechazarFilas() throws Exception {
+        productoRepository.save(buildProducto("SKU-IMP-1", "Original"));
+        String csv = """
+            sku,nombre,descripcion,precio,stock,categoria,activo
+            SKU-IMP-1,Actualizado,"Con coma, y ""comillas\""",10.50,3,Audio,true
+            SKU-IMP-2,Nuevo,,20.00,4,Audio,false
+            SKU-IMP-3,,sin nombre,5.00,1,Audio,true
+            SKU-IMP-4,Precio malo,,abc,1,Audio,true
+            """;
+
+        mockMvc.perform(post("/api/v1/productos/import")
+                .contentType("text/csv")
+                .content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(4))
+            .andExpect(jsonPath("$.upserted").value(2))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.errors[0].line").value(4))
+            .andExpect(jsonPath("$.errors[1].sku").value("SKU-IMP-4"));
+
+        Producto actualizado = productoRepository.findBySkuIn(List.of("SKU-IMP-1")).getFirst();
+        assertThat(actualizado.getNombre()).isEqualTo("Actualizado");
+        assertThat(actualizado.getDescripcion()).isEqualTo("Con coma, y \"comillas\"");
+
+        String ndjson = """
+            {"sku":"SKU-IMP-2","nombre":"Nuevo NDJSON","precio":21.00,"stock":5}
+            {"sku":"SKU-IMP-5","nombre":"Otro","precio":1.00,"stock":0}
+            {no es json}
+            """;
+
+        mockMvc.perform(post("/api/v1/productos/import")
+                .contentType(ProductoController.APPLICATION_NDJSON)
+                .content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(3))
+            .andExpect(jsonPath("$.upserted").value(2))
+            .andExpect(jsonPath("$.rejected").value(1));
+
+        assertThat(productoRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void importDebeInvalidarLaCacheDeProductosActualizados() throws Exception {
+        Long id = productoRepository.save(buildProducto("SKU-IMP-CACHE", "Antes")).getId();
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nombre").value("Antes"));
+
+        mockMvc.perform(post("/api/v1/productos/import")
+                .contentType("text/csv")
+                .content("""
+                    sku,nombre,descripcion,precio,stock,categoria,activo
+                    SKU-IMP-CACHE,Despues,,33.00,7,Audio,true
+                    """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.upserted").value(1));
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nombre").value("Despues"))
+            .andExpect(jsonPath("$.precio").value(33.00))
+            .andExpect(jsonPath("$.stock").value(7))
+            .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void exportDebeEscribirTodoElCatalogo() throws Exception {
+        Producto conComa = buildProducto("SKU-EXP-1", "Cable, USB");
+        conComa.setDescripcion("Dice \"rapido\"");
+        productoRepository.save(conComa);
+        productoRepository.save(buildProducto("SKU-EXP-2", "Hub"));
+
+        MvcResult ndjson = mockMvc.perform(get("/api/v1/productos/export"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+            .andReturn();
+        String[] lineas = ndjson.getResponse().getContentAsString().split("\n");
+        assertThat(lineas).hasSize(2);
+        assertThat(objectMapper.readTree(lineas[0]).get("sku").asText()).isEqualTo("SKU-EXP-1");
+
+        MvcResult csv = mockMvc.perform(get("/api/v1/productos/export").param("format", "csv"))
+            .andExpect(status().isOk())
+            .andReturn();
+        String[] filas = csv.getResponse().getContentAsString().split("\n");
+        assertThat(filas).hasSize(3);
+        assertThat(filas[0]).startsWith("id,sku,nombre");
+        assertThat(filas[1]).contains("SKU-EXP-1,\"Cable, USB\",\"Dice \"\"rapido\"\"\",10.00");
+    }
+
+    @Test
+    void representacionesBinariasDebenElegirseConAccept() throws Exception {
+        Long id = createProducto(new ProductoRequest(
+            "SKU-BIN-1", "Mouse binario", "Mouse", new BigDecimal("25.50"), 3, "Perifericos", true));
+
+        MvcResult json = mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andReturn();
+        MvcResult cbor = mockMvc.perform(get("/api/v1/productos/{id}", id)
+                .header(HttpHeaders.ACCEPT, "application/cbor"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+            .andReturn();
+        String cborEtag = cbor.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cborEtag).isNotEqualTo(json.getResponse().getHeader(HttpHeaders.ETAG)).endsWith("-cbor\"");
+        JsonNode producto = new ObjectMapper(new CBORFactory()).readTree(cbor.getResponse().getContentAsByteArray());
+        assertThat(producto.get("sku").asText()).isEqualTo("SKU-BIN-1");
+        assertThat(producto.get("precio").decimalValue()).isEqualByComparingTo("25.50");
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id)
+                .header(HttpHeaders.ACCEPT, "application/cbor")
+                .header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+            .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/productos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+            .andExpect(status().isOk());
+        // El ETag binario sirve para If-Match.
+        mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .header(HttpHeaders.IF_MATCH, cborEtag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\":4}"))
+            .andExpect(status().isOk());
+
+        MvcResult smile = mockMvc.perform(get("/api/v1/productos")
+                .header(HttpHeaders.ACCEPT, "application/x-jackson-smile"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-jackson-smile"))
+            .andReturn();
+        JsonNode pagina = new ObjectMapper(new SmileFactory()).readTree(smile.getResponse().getContentAsByteArray());
+        assertThat(pagina.get("content").get(0).get("stock").asInt()).isEqualTo(4);
+        assertThat(pagina.get("totalElements").asLong()).isEqualTo(1);
+
+        MvcResult protobuf = mockMvc.perform(get("/api/v1/productos")
+                .param("fields", "sku,precio")
+                .header(HttpHeaders.ACCEPT, "application/x-protobuf, application/json;q=0.5"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-protobuf"))
+            .andReturn();
+        CodedInputStream page = CodedInputStream.newInstance(protobuf.getResponse().getContentAsByteArray());
+        Map<Integer, Object> contenido = null;
+        long totalElements = 0;
+        for (int tag = page.readTag(); tag != 0; tag = page.readTag()) {
+            switch (tag >>> 3) {
+                case 1 -> contenido = readProducto(page.readBytes().newCodedInput());
+                case 4 -> totalElements = page.readInt64();
+                default -> page.skipField(tag);
+            }
+        }
+        assertThat(totalElements).isEqualTo(1);
+        assertThat(contenido).containsEntry(1, id).containsEntry(2, "SKU-BIN-1").containsEntry(5, "25.50")
+            .doesNotContainKey(3);
+
+        // Los errores no tienen representacion protobuf: responden JSON con su estado, no 500.
+        mockMvc.perform(get("/api/v1/productos/{id}", 999_999L)
+                .header(HttpHeaders.ACCEPT, "application/x-protobuf"))
+            .andExpect(status().isNotFound())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+            .andExpect(jsonPath("$.status").value(404));
+        mockMvc.perform(get("/api/v1/productos").param("sort", "sku,asc")
+                .header(HttpHeaders.ACCEPT, "application/x-protobuf"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+
+        // Sin Accept binario el listado sigue en JSON, con ETag distinto al binario.
+        MvcResult listadoJson = mockMvc.perform(get("/api/v1/productos").header(HttpHeaders.ACCEPT, "*/*"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+            .andReturn();
+        assertThat(listadoJson.getResponse().getHeader(HttpHeaders.ETAG))
+            .isNotEqualTo(smile.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void exportDebeEscribirMensajesProtobufDelimitados() throws Exception {
+        productoRepository.save(buildProducto("SKU-EXP-PB-1", "Hub"));
+        productoRepository.save(buildProducto("SKU-EXP-PB-2", "Dock"));
+
+        MvcResult export = mockMvc.perform(get("/api/v1/productos/export")
+                .header(HttpHeaders.ACCEPT, "application/x-protobuf"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-protobuf"))
+            .andReturn();
+        InputStream input = new ByteArrayInputStream(export.getResponse().getContentAsByteArray());
+        List<Object> skus = new ArrayList<>();
+        for (int first = input.read(); first != -1; first = input.read()) {
+            int length = CodedInputStream.readRawVarint32(first, input);
+            skus.add(readProducto(CodedInputStream.newInstance(input.readNBytes(length))).get(2));
+        }
+        assertThat(skus).containsExactly("SKU-EXP-PB-1", "SKU-EXP-PB-2");
+
+        MvcResult cbor = mockMvc.perform(get("/api/v1/productos/export").param("format", "cbor"))
+            .andExpect(status().isOk())
+            .andReturn();
+        List<JsonNode> productos = new ObjectMapper(new CBORFactory())
+            .readerFor(JsonNode.class)
+            .<JsonNode>readValues(cbor.getResponse().getContentAsByteArray())
+            .readAll();
+        assertThat(productos).extracting(node -> node.get("sku").asText())
+            .containsExactly("SKU-EXP-PB-1", "SKU-EXP-PB-2");
+    }
+
+    @Test
+    void changesDebeEntregarAltasCambiosYBajasDesdeElToken() throws Exception {
+        Long mouse = createProducto(new ProductoRequest(
+            "SKU-CHG-1", "Mouse", null, new BigDecimal("10.00"), 1, "Perifericos", true));
+        Long teclado = createProducto(new ProductoRequest(
+            "SKU-CHG-2", "Teclado", null, new BigDecimal("20.00"), 1, "Perifericos", true));
+        mockMvc.perform(patch("/api/v1/productos/{id}", mouse)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\":5}"))
+            .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/productos/{id}", teclado))
+            .andExpect(status().isNoContent());
+
+        JsonNode primera = changes(null, 1);
+        assertThat(primera.get("hasMore").asBoolean()).isTrue();
+        assertThat(primera.get("cambios")).hasSize(1);
+        assertThat(primera.at("/cambios/0/tipo").asText()).isEqualTo("UPSERT");
+        assertThat(primera.at("/cambios/0/id").asLong()).isEqualTo(mouse);
+        assertThat(primera.at("/cambios/0/producto/stock").asInt()).isEqualTo(5);
+
+        JsonNode segunda = changes(primera.get("nextToken").asText(), 10);
+        assertThat(segunda.get("hasMore").asBoolean()).isFalse();
+        assertThat(segunda.get("cambios")).hasSize(1);
+        assertThat(segunda.at("/cambios/0/tipo").asText()).isEqualTo("DELETE");
+        assertThat(segunda.at("/cambios/0/id").asLong()).isEqualTo(teclado);
+        assertThat(segunda.at("/cambios/0/sku").asText()).isEqualTo("SKU-CHG-2");
+        assertThat(segunda.at("/cambios/0/producto").isNull()).isTrue();
+
+        String token = segunda.get("nextToken").asText();
+        assertThat(changes(token, 10).get("cambios")).isEmpty();
+        mockMvc.perform(patch("/api/v1/productos/{id}", mouse)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"precio\":12.00}"))
+            .andExpect(status().isOk());
+        JsonNode tercera = changes(token, 10);
+        assertThat(tercera.get("cambios")).hasSize(1);
+        assertThat(tercera.at("/cambios/0/producto/precio").decimalValue()).isEqualByComparingTo("12.00");
+
+        mockMvc.perform(get("/api/v1/productos/changes").param("since", "no-es-un-token"))
+            .andExpect(status().isBadRequest());
+        // Token de 1970: anterior a la retencion de bajas.
+        mockMvc.perform(get("/api/v1/productos/changes").param("since", "MC4w"))
+            .andExpect(status().isGone());
+
+        // Productos y bajas se leen desde la posicion del token por sus indices (updated_at, id).
+        List<String> selects = capturarSelects(get("/api/v1/productos/changes").param("since", token));
+        assertThat(selects).hasSize(2);
+        for (String sql : selects) {
+            assertThat(jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class))
+                .doesNotContain("tableScan")
+                .containsAnyOf("idx_productos_updated_at", "idx_productos_bajas_deleted_at");
+        }
+    }
+
+    @Test
+    void streamDebeEnviarCambiosConfirmadosYRecuperarDesdeLastEventId() throws Exception {
+        try {
+            MvcResult stream = mockMvc.perform(get("/api/v1/productos/changes/stream")
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            Long id = createProducto(new ProductoRequest(
+                "SKU-SSE-1", "Monitor", null, new BigDecimal("150.00"), 2, "Monitores", true));
+            String alta = esperarEvento(stream, "\"stock\":2");
+            assertThat(alta).contains("event:upsert").contains("\"sku\":\"SKU-SSE-1\"");
+            String ultimoId = alta.lines().filter(line -> line.startsWith("id:")).reduce((a, b) -> b)
+                .orElseThrow().substring(3);
+
+            mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"stock\":9}"))
+                .andExpect(status().isOk());
+            esperarEvento(stream, "\"stock\":9");
+            mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(stockBody(id, 2)))
+                .andExpect(status().isOk());
+            esperarEvento(stream, "\"stock\":7");
+            mockMvc.perform(post("/api/v1/productos/stock/release")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(stockBody(id, 1)))
+                .andExpect(status().isOk());
+            esperarEvento(stream, "\"stock\":8");
+            mockMvc.perform(delete("/api/v1/productos/{id}", id))
+                .andExpect(status().isNoContent());
+            assertThat(esperarEvento(stream, "event:delete")).contains("\"producto\":null");
+
+            // Un cliente que se corto despues del alta recupera la modificacion y la baja.
+            MvcResult reconexion = mockMvc.perform(get("/api/v1/productos/changes/stream")
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .header("Last-Event-ID", ultimoId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            assertThat(esperarEvento(reconexion, "event:delete")).contains("SKU-SSE-1");
+
+            mockMvc.perform(get("/api/v1/productos/changes/stream")
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .param("since", "no-es-un-token"))
+                .andExpect(status().isBadRequest());
+            assertThat(streamService.suscriptores()).isEqualTo(2);
+        } finally {
+            streamService.cerrarTodos();
+        }
+        assertThat(streamService.suscriptores()).isZero();
+    }
+
+    @Test
+    void etagDebeResponder304HastaQueCambieElProducto() throws Exception {
+        ProductoRequest request = new ProductoRequest(
+            "SKU-ETAG-1", "Parlante Etag", "Parlante", new BigDecimal("90.00"), 4, "Audio", true);
+        MvcResult createResult = mockMvc.perform(post("/api/v1/productos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        String itemEtag = createResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, itemEtag));
+        mockMvc.perform(get("/api/v1/productos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, itemEtag))
+            .andExpect(status().isNotModified());
+
+        String listEtag = mockMvc.perform(get("/api/v1/productos").param("nombre", "etag"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/productos").param("nombre", "etag").header(HttpHeaders.IF_NONE_MATCH, listEtag))
+            .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/productos").param("nombre", "etag").param("size", "5")
+                .header(HttpHeaders.IF_NONE_MATCH, listEtag))
+            .andExpect(status().isOk());
+        String cursorEtag = mockMvc.perform(get("/api/v1/productos").param("nombre", "etag").param("cursor", ""))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cursorEtag).isNotNull().isNotEqualTo(listEtag);
+        mockMvc.perform(get("/api/v1/productos").param("nombre", "etag").param("cursor", "")
+                .header(HttpHeaders.IF_NONE_MATCH, cursorEtag))
+            .andExpect(status().isNotModified());
+
+        String putEtag = mockMvc.perform(put("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductoRequest(
+                    "SKU-ETAG-1", "Parlante Etag", "Parlante", new BigDecimal("95.00"), 4, "Audio", true))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(putEtag).isNotEqualTo(itemEtag);
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id).header(HttpHeaders.IF_NONE_MATCH, itemEtag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.precio").value(95.00));
+        mockMvc.perform(get("/api/v1/productos").param("nombre", "etag").header(HttpHeaders.IF_NONE_MATCH, listEtag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].precio").value(95.00));
+        mockMvc.perform(get("/api/v1/productos").param("nombre", "etag").param("cursor", "")
+                .header(HttpHeaders.IF_NONE_MATCH, cursorEtag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].precio").value(95.00));
+    }
+
+    @Test
+    void patchDebeAplicarSoloCamposEnviadosYRespetarIfMatch() throws Exception {
+        ProductoRequest request = new ProductoRequest(
+            "SKU-PATCH-1", "Mochila", "Mochila urbana", new BigDecimal("60.00"), 8, "Accesorios", true);
+        MvcResult createResult = mockMvc.perform(post("/api/v1/productos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        String etag = createResult.getResponse().getHeader(HttpHeaders.ETAG);
+        productoRepository.save(buildProducto("SKU-PATCH-2", "Otra mochila"));
+
+        String nuevoEtag = mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\": 3}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.stock").value(3))
+            .andExpect(jsonPath("$.nombre").value("Mochila"))
+            .andExpect(jsonPath("$.descripcion").value("Mochila urbana"))
+            .andExpect(jsonPath("$.version").value(1))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(nuevoEtag).isNotEqualTo(etag);
+
+        mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\": 1}"))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.status").value(412));
+
+        mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sku\": \"SKU-PATCH-2\"}"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value("El sku ya existe: SKU-PATCH-2"));
+
+        // La categoria excede la columna: el error de la base no debe reportarse como SKU duplicado.
+        mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sku\": \"SKU-PATCH-3\", \"categoria\": \"" + "x".repeat(121) + "\"}"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value("Conflicto de datos en la base de datos"));
+
+        mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\": -1}"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/api/v1/productos/{id}", 999_999)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"stock\": 1}"))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, nuevoEtag))
+            .andExpect(jsonPath("$.stock").value(3));
+    }
+
+    @Test
+    void findByIdDebeUsarCacheYRefrescarTrasActualizar() throws Exception {
+        ProductoRequest request = new ProductoRequest(
+            "SKU-CACHE-1",
+            "Monitor Cache",
+            "Monitor para pruebas",
+            new BigDecimal("800.00"),
+            3,
+            "Pantallas",
+            true
+        );
+        MvcResult createResult = mockMvc.perform(post("/api/v1/productos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        long hitsAntes = cacheHits("productos");
+        mockMvc.perform(get("/api/v1/productos/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/productos/{id}", id)).andExpect(status().isOk());
+        assertThat(cacheHits("productos")).isEqualTo(hitsAntes + 1);
+
+        ProductoRequest updateRequest = new ProductoRequest(
+            "SKU-CACHE-1",
+            "Monitor Cache Actualizado",
+            "Monitor para pruebas",
+            new BigDecimal("800.00"),
+            3,
+            "Pantallas",
+            true
+        );
+        mockMvc.perform(put("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.nombre").value("Monitor Cache Actualizado"));
+
+        mockMvc.perform(delete("/api/v1/productos/{id}", id))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/productos/{id}", id))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void jsonCacheDebeReutilizarElJsonHastaQueCambieLaFila() throws Exception {
+        Producto producto = buildProducto("SKU-JSON-1", "Json Cache");
+        producto.setStock(10);
+        Long id = productoRepository.save(producto).getId();
+        String url = "/api/v1/productos?size=5&sort=id,asc";
+        String primero = mockMvc.perform(get(url)).andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        long hitsAntes = cacheHits(ProductoJsonCache.NOMBRE);
+        String segundo = mockMvc.perform(get(url)).andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String detalle = mockMvc.perform(get("/api/v1/productos/{id}", id)).andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        assertThat(cacheHits(ProductoJsonCache.NOMBRE)).isEqualTo(hitsAntes + 2);
+        assertThat(segundo).isEqualTo(primero);
+        // El JSON copiado de la cache es el mismo que produce la serializacion normal.
+        assertThat(detalle).isEqualTo(objectMapper.writeValueAsString(
+            objectMapper.readValue(detalle, ProductoResponse.class)));
+        assertThat(primero).contains(detalle);
+
+        // Las reservas no publican evento: la version distinta basta para no usar la entrada vieja.
+        mockMvc.perform(post("/api/v1/productos/stock/reserve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(stockBody(id, 4)))
+            .andExpect(status().isOk());
+        mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].stock").value(6));
+
+        mockMvc.perform(patch("/api/v1/productos/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"precio\":25.50}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.precio").value(25.50));
+        mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].precio").value(25.50))
+            .andExpect(jsonPath("$.content[0].stock").value(6));
+    }
+
+    private long cacheHits(String nombre) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/cache"))
+            .andExpect(status().isOk())
+            .andReturn();
+        JsonNode stats = objectMapper.readTree(result.getResponse().getContentAsString());
+        for (JsonNode cache : stats) {
+            if (nombre.equals(cache.get("name").asText())) {
+                return cache.get("hitCount").asLong();
+            }
+        }
+        throw new AssertionError("Cache " + nombre + " no registrada");
+    }
+
+    /**
+     * Ejecuta el listado con los parametros dados y devuelve los SELECT sobre productos que envio
+     * Hibernate, tomados de las estadisticas de consultas de H2.
+     */
+    private List<String> capturarSelects(MockHttpServletRequestBuilder request) throws Exception {
+        return capturarSelects(request, status().isOk());
+    }
+
+    private List<String> capturarSelects(MockHttpServletRequestBuilder request, ResultMatcher esperado)
+        throws Exception {
+        // Desactivar las estadisticas las limpia.
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        mockMvc.perform(request).andExpect(esperado);
+        List<String> statements = jdbcTemplate.queryForList(
+            "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class);
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        return statements.stream()
+            .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("select") && sql.contains("productos"))
+            .toList();
+    }
+
+    private static String esperarEvento(MvcResult stream, String texto) throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < limite) {
+            String contenido = stream.getResponse().getContentAsString();
+            if (contenido.contains(texto)) {
+                return contenido;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("El stream no recibio " + texto + ": " + stream.getResponse().getContentAsString());
+    }
+
+    private JsonNode changes(String since, int limit) throws Exception {
+        var request = get("/api/v1/productos/changes").param("limit", String.valueOf(limit));
+        if (since != null) {
+            request.param("since", since);
+        }
+        MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private Long createProducto(ProductoRequest request) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/productos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private static Map<Integer, Object> readProducto(CodedInputStream input) throws Exception {
+        Map<Integer, Object> campos = new HashMap<>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            int campo = tag >>> 3;
+            switch (campo) {
+                case 2, 3, 4, 5, 7 -> campos.put(campo, input.readString());
+                case 6 -> campos.put(campo, input.readInt32());
+                case 8 -> campos.put(campo, input.readBool());
+                default -> campos.put(campo, input.readInt64());
+            }
+        }
+        return campos;
+    }
+
+    private static String stockBody(Long id, int cantidad) {
+        return "{\"lineas\":[{\"id\":" + id + ",\"cantidad\":" + cantidad + "}]}";
+    }
+
+    private Producto buildProducto(String sku, String nombre) {
+        Producto producto = new Producto();
+        producto.setSku(sku);
+        producto.setNombre(nombre);
+        producto.setPrecio(new BigDecimal("10.00"));
+        producto.setStock(1);
+        producto.setActivo(true);
+        return producto;
     }
 }
@@ -0,0 +1,45 @@
+package com.jamnd.crudbasic.integration;
+
+import com.jamnd.crudbasic.config.SqlStatsFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matchers de MockMvc para verificar cuantas sentencias SQL ejecuta una solicitud.
+ * Requieren {@code app.sql-stats.headers=true}, activo en el perfil de test.
+ */
+final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    /**
+     * La solicitud ejecuto exactamente la cantidad indicada de sentencias.
+     *
+     * @param expected sentencias esperadas
+     * @return matcher de MockMvc
+     */
+    static ResultMatcher exactly(long expected) {
+        return result -> assertThat(count(result.getResponse().getHeader(SqlStatsFilter.STATEMENTS_HEADER)))
+            .as("sentencias SQL de %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+            .isEqualTo(expected);
+    }
+
+    /**
+     * La solicitud ejecuto como maximo la cantidad indicada de sentencias.
+     *
+     * @param max sentencias permitidas
+     * @return matcher de MockMvc
+     */
+    static ResultMatcher atMost(long max) {
+        return result -> assertThat(count(result.getResponse().getHeader(SqlStatsFilter.STATEMENTS_HEADER)))
+            .as("sentencias SQL de %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+            .isLessThanOrEqualTo(max);
+    }
+
+    private static long count(String header) {
+        assertThat(header).as("cabecera " + SqlStatsFilter.STATEMENTS_HEADER).isNotNull();
+        return Long.parseLong(header);
+    }
+}
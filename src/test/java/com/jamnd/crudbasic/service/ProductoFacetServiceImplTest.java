@@ -0,0 +1,56 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.config.ConteoProperties;
+import com.jamnd.crudbasic.dto.CategoriaFacet;
+import com.jamnd.crudbasic.dto.FacetsResponse;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductoFacetServiceImplTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Test
+    void conteosDebenServirseDeMemoriaMientrasNoVenzan() {
+        when(productoRepository.countByCategoria()).thenReturn(List.of(new CategoriaFacet("Hogar", 2, 1)));
+        ProductoFacetServiceImpl service =
+            new ProductoFacetServiceImpl(productoRepository, properties(Duration.ofMinutes(5)));
+
+        service.findFacets(false, List.of());
+        service.findFacets(false, List.of());
+
+        verify(productoRepository, times(1)).countByCategoria();
+    }
+
+    @Test
+    void conteosVencidosDebenRecargarseDeLaBase() {
+        when(productoRepository.countByCategoria())
+            .thenReturn(List.of(new CategoriaFacet("Hogar", 2, 1)))
+            .thenReturn(List.of(new CategoriaFacet("Hogar", 3, 3)));
+        ProductoFacetServiceImpl service =
+            new ProductoFacetServiceImpl(productoRepository, properties(Duration.ZERO));
+
+        service.findFacets(false, List.of());
+        FacetsResponse recargado = service.findFacets(false, List.of());
+
+        verify(productoRepository, times(2)).countByCategoria();
+        assertEquals(List.of(new CategoriaFacet("Hogar", 3, 3)), recargado.categorias());
+    }
+
+    private static ConteoProperties properties(Duration facetsTtl) {
+        return new ConteoProperties(false, Duration.ofSeconds(60), 1000, facetsTtl);
+    }
+}
@@ -1,30 +1,52 @@
 package com.jamnd.crudbasic.service;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.jamnd.crudbasic.dto.ProductoRequest;
+import com.jamnd.crudbasic.dto.BatchCreateResponse;
+import com.jamnd.crudbasic.dto.BatchItemResult;
+import com.jamnd.crudbasic.dto.PageResponse;
+import com.jamnd.crudbasic.dto.ProductoFilter;
+import com.jamnd.crudbasic.dto.ProductoPatchRequest;
 import com.jamnd.crudbasic.dto.ProductoResponse;
+import com.jamnd.crudbasic.dto.TotalMode;
 import com.jamnd.crudbasic.entity.Producto;
+import com.jamnd.crudbasic.entity.ProductoBaja;
 import com.jamnd.crudbasic.exception.DuplicateSkuException;
+import com.jamnd.crudbasic.exception.InvalidFieldsException;
 import com.jamnd.crudbasic.exception.ResourceNotFoundException;
+import com.jamnd.crudbasic.exception.VersionConflictException;
 import com.jamnd.crudbasic.mapper.ProductoMapper;
+import com.jamnd.crudbasic.repository.ProductoBajaRepository;
 import com.jamnd.crudbasic.repository.ProductoRepository;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -36,23 +58,39 @@ class ProductoServiceImplTest {
     @Mock
     private ProductoRepository productoRepository;
 
+    @Mock
+    private ProductoBajaRepository productoBajaRepository;
+
+    @Mock
+    private ProductoCountEstimator countEstimator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private ProductoServiceImpl productoService;
 
     @BeforeEach
     void setUp() {
-        productoService = new ProductoServiceImpl(productoRepository, new ProductoMapper());
+        productoService = new ProductoServiceImpl(
+            productoRepository,
+            productoBajaRepository,
+            new ProductoMapper(),
+            new CursorCodec(JsonMapper.builder().findAndAddModules().build()),
+            countEstimator,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            eventPublisher
+        );
     }
 
     @Test
     void createDebeRetornarProductoCreado() {
         ProductoRequest request = buildRequest("SKU-UNIT-1", "Producto Unit");
-        when(productoRepository.existsBySku("SKU-UNIT-1")).thenReturn(false);
-        when(productoRepository.save(any(Producto.class))).thenAnswer(invocation -> {
+        when(productoRepository.insertIfAbsent(any(Producto.class))).thenAnswer(invocation -> {
             Producto entity = invocation.getArgument(0);
             entity.setId(1L);
             entity.setCreatedAt(LocalDateTime.now());
             entity.setUpdatedAt(LocalDateTime.now());
-            return entity;
+            return true;
         });
 
         ProductoResponse response = productoService.create(request);
@@ -64,15 +102,42 @@ class ProductoServiceImplTest {
     @Test
     void createDebeFallarCuandoSkuDuplicado() {
         ProductoRequest request = buildRequest("SKU-REP", "Producto");
-        when(productoRepository.existsBySku("SKU-REP")).thenReturn(true);
+        when(productoRepository.insertIfAbsent(any(Producto.class))).thenReturn(false);
 
         assertThrows(DuplicateSkuException.class, () -> productoService.create(request));
         verify(productoRepository, never()).save(any(Producto.class));
     }
 
+    @Test
+    void createBatchDebeReportarResultadoPorElemento() {
+        List<ProductoRequest> requests = List.of(
+            buildRequest("SKU-B1", "Uno"),
+            buildRequest("SKU-EXISTE", "Existe"),
+            buildRequest("", "Invalido"),
+            buildRequest("SKU-B1", "Repetido")
+        );
+        when(productoRepository.findExistingSkus(anyCollection())).thenReturn(List.of("SKU-EXISTE"));
+        when(productoRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Producto> entities = invocation.getArgument(0);
+            entities.forEach(entity -> entity.setId(50L));
+            return entities;
+        });
+
+        BatchCreateResponse response = productoService.createBatch(requests);
+
+        assertEquals(4, response.total());
+        assertEquals(1, response.created());
+        assertEquals(3, response.rejected());
+        assertEquals(BatchItemResult.Status.CREATED, response.items().get(0).status());
+        assertEquals(50L, response.items().get(0).id());
+        assertEquals(BatchItemResult.Status.DUPLICATE, response.items().get(1).status());
+        assertEquals(BatchItemResult.Status.INVALID, response.items().get(2).status());
+        assertEquals(BatchItemResult.Status.DUPLICATE, response.items().get(3).status());
+    }
+
     @Test
     void findByIdDebeFallarCuandoNoExiste() {
-        when(productoRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productoRepository.findResponseById(99L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> productoService.findById(99L));
     }
@@ -83,7 +148,7 @@ class ProductoServiceImplTest {
         ProductoRequest request = buildRequest("SKU-NEW", "Nuevo");
         when(productoRepository.findById(7L)).thenReturn(Optional.of(actual));
         when(productoRepository.existsBySkuAndIdNot("SKU-NEW", 7L)).thenReturn(false);
-        when(productoRepository.save(any(Producto.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         ProductoResponse response = productoService.update(7L, request);
 
@@ -91,6 +156,26 @@ class ProductoServiceImplTest {
         assertEquals("Nuevo", response.nombre());
     }
 
+    @Test
+    void patchDebeFallarConVersionDistintaSinReintentar() {
+        ProductoPatchRequest request = new ProductoPatchRequest(null, null, null, null, 3, null, null);
+        when(productoRepository.patch(7L, 2L, Map.of("stock", 3))).thenReturn(0);
+        when(productoRepository.findVersionById(7L)).thenReturn(Optional.of(4L));
+
+        assertThrows(VersionConflictException.class, () -> productoService.patch(7L, request, 2L));
+        verify(productoRepository).patch(anyLong(), anyLong(), anyMap());
+        verify(productoRepository, never()).findResponseById(anyLong());
+    }
+
+    @Test
+    void patchDebeFallarCuandoNoExiste() {
+        ProductoPatchRequest request = new ProductoPatchRequest(null, "Nuevo", null, null, null, null, null);
+        when(productoRepository.patch(99L, null, Map.of("nombre", "Nuevo"))).thenReturn(0);
+        when(productoRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productoService.patch(99L, request, null));
+    }
+
     @Test
     void deleteDebeEliminarProductoExistente() {
         Producto actual = buildEntity(7L, "SKU-DEL", "Eliminar");
@@ -100,18 +185,78 @@ class ProductoServiceImplTest {
         productoService.delete(7L);
 
         verify(productoRepository).delete(actual);
+        ArgumentCaptor<ProductoBaja> baja = ArgumentCaptor.forClass(ProductoBaja.class);
+        verify(productoBajaRepository).save(baja.capture());
+        assertEquals(7L, baja.getValue().getId());
+        assertEquals("SKU-DEL", baja.getValue().getSku());
+        assertTrue(baja.getValue().isNew());
     }
 
     @Test
     void findAllDebeFiltrarPorNombreCuandoSeEnviaParametro() {
-        Producto producto = buildEntity(1L, "SKU-LIST", "Mouse");
-        Page<Producto> page = new PageImpl<>(List.of(producto), PageRequest.of(0, 10), 1);
-        when(productoRepository.findByNombreContainingIgnoreCase("mou", PageRequest.of(0, 10))).thenReturn(page);
+        ProductoResponse producto = buildResponse(1L, "SKU-LIST", "Mouse");
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(productoRepository.findResponseSlice(any(), eq(pageable)))
+            .thenReturn(new SliceImpl<>(List.of(producto), pageable, false));
 
-        Page<ProductoResponse> response = productoService.findAll("mou", PageRequest.of(0, 10));
+        Page<ProductoResponse> response = productoService.findAll("mou", pageable);
 
         assertEquals(1, response.getTotalElements());
         assertTrue(response.getContent().getFirst().nombre().contains("Mouse"));
+        verify(productoRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void findFieldsDebeIncluirIdYRespetarOrdenDelDto() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(productoRepository.findFieldSlice(any(), anyList(), eq(pageable)))
+            .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        productoService.findFields(
+            ProductoFilter.porNombre(null), List.of("precio", " nombre"), pageable, TotalMode.NONE);
+
+        verify(productoRepository).findFieldSlice(any(), eq(List.of("id", "nombre", "precio")), eq(pageable));
+    }
+
+    @Test
+    void findFieldsDebeRechazarCamposDesconocidos() {
+        PageRequest pageable = PageRequest.of(0, 10);
+
+        assertThrows(InvalidFieldsException.class,
+            () -> productoService.findFields(
+                ProductoFilter.porNombre(null), List.of("sku", "password"), pageable, TotalMode.NONE));
+        verify(productoRepository, never()).findFieldSlice(any(), anyList(), any());
+    }
+
+    @Test
+    void findAllSinTotalNoDebeEjecutarCount() {
+        ProductoResponse producto = buildResponse(1L, "SKU-SLICE", "Mouse");
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(productoRepository.findResponseSlice(any(), eq(pageable)))
+            .thenReturn(new SliceImpl<>(List.of(producto), pageable, false));
+
+        PageResponse<ProductoResponse> response = productoService.findAll(ProductoFilter.porNombre(null), pageable, TotalMode.NONE);
+
+        assertEquals(-1, response.totalElements());
+        assertEquals(-1, response.totalPages());
+        assertFalse(response.hasNext());
+        verify(productoRepository, never()).count();
+        verify(countEstimator, never()).estimate(any());
+    }
+
+    @Test
+    void findAllEstimadoNoDebeSerMenorQueLoVisible() {
+        ProductoResponse producto = buildResponse(1L, "SKU-EST", "Mouse");
+        PageRequest pageable = PageRequest.of(2, 1);
+        when(productoRepository.findResponseSlice(any(), eq(pageable)))
+            .thenReturn(new SliceImpl<>(List.of(producto), pageable, true));
+        when(countEstimator.estimate(ProductoFilter.porNombre("mou"))).thenReturn(1L);
+
+        PageResponse<ProductoResponse> response = productoService.findAll(ProductoFilter.porNombre("mou"), pageable, TotalMode.ESTIMATED);
+
+        assertEquals(4, response.totalElements());
+        assertEquals(4, response.totalPages());
+        assertTrue(response.hasNext());
     }
 
     private ProductoRequest buildRequest(String sku, String nombre) {
@@ -126,6 +271,10 @@ class ProductoServiceImplTest {
         );
     }
 
+    private ProductoResponse buildResponse(Long id, String sku, String nombre) {
+        return new ProductoMapper().toResponse(buildEntity(id, sku, nombre));
+    }
+
     private Producto buildEntity(Long id, String sku, String nombre) {
         Producto entity = new Producto();
         entity.setId(id);
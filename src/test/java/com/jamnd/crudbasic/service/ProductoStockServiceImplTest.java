@@ -0,0 +1,59 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.dto.StockLine;
+import com.jamnd.crudbasic.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductoStockServiceImplTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Mock
+    private ObjectProvider<StockLeaseManager> leaseManager;
+
+    @Mock
+    private StockLeaseManager leases;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void reservaDebeDevolverLoArrendadoSiFallaElArriendoDeOtraLinea() {
+        when(leaseManager.getIfAvailable()).thenReturn(leases);
+        when(leases.isHot(1L)).thenReturn(true);
+        when(leases.isHot(2L)).thenReturn(true);
+        when(leases.reserve(1L, 3)).thenReturn(7);
+        when(leases.reserve(2L, 4)).thenThrow(new QueryTimeoutException("relleno del arriendo"));
+        ProductoStockServiceImpl service = new ProductoStockServiceImpl(
+            productoRepository, transactionManager, cacheManager, leaseManager, eventPublisher);
+
+        assertThrows(QueryTimeoutException.class,
+            () -> service.reserve(List.of(new StockLine(2L, 4), new StockLine(1L, 3))));
+
+        verify(leases).cancelReserve(1L, 3);
+        verify(leases, never()).cancelReserve(2L, 4);
+    }
+}
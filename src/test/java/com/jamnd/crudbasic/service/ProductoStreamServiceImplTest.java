@@ -0,0 +1,71 @@
+package com.jamnd.crudbasic.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamnd.crudbasic.config.CambiosProperties;
+import com.jamnd.crudbasic.config.StreamProperties;
+import com.jamnd.crudbasic.exception.StreamLimitException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@ExtendWith(MockitoExtension.class)
+class ProductoStreamServiceImplTest {
+
+    private static final int MAX = 3;
+
+    @Mock
+    private ProductoCambiosService cambiosService;
+
+    @Test
+    void suscripcionesConcurrentesNoDebenSuperarElMaximoYDebenLiberarAlCerrar() throws Exception {
+        ProductoStreamServiceImpl service = new ProductoStreamServiceImpl(
+            cambiosService,
+            new ObjectMapper(),
+            new StreamProperties(
+                2, StreamProperties.Desborde.DESCONECTAR, 4, MAX, Duration.ofSeconds(15), Duration.ZERO),
+            new CambiosProperties(Duration.ofSeconds(5), Duration.ofDays(30), Duration.ofHours(1)));
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger aceptadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            hilos.add(Thread.ofPlatform().start(() -> {
+                try {
+                    salida.await();
+                    service.subscribe(null);
+                    aceptadas.incrementAndGet();
+                } catch (StreamLimitException ex) {
+                    rechazadas.incrementAndGet();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        salida.countDown();
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        assertEquals(MAX, aceptadas.get());
+        assertEquals(50 - MAX, rechazadas.get());
+        assertEquals(MAX, service.suscriptores());
+
+        // Cerrar devuelve los cupos.
+        service.cerrarTodos();
+        assertEquals(0, service.suscriptores());
+        for (int i = 0; i < MAX; i++) {
+            assertNotNull(service.subscribe(null));
+        }
+        service.cerrarTodos();
+    }
+}
@@ -0,0 +1,99 @@
+package com.jamnd.crudbasic.service;
+
+import com.jamnd.crudbasic.config.StreamProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StreamSuscriptorTest {
+
+    private static final StreamEvento EVENTO = new StreamEvento("upsert", "MC4x", "{}");
+
+    @Test
+    void bufferLlenoDebeDesconectarSinBloquear() {
+        List<StreamSuscriptor> cerrados = new ArrayList<>();
+        StreamSuscriptor suscriptor = new StreamSuscriptor(
+            new SseEmitter(), properties(StreamProperties.Desborde.DESCONECTAR), cerrados::add);
+
+        assertTrue(suscriptor.ofrecer(EVENTO));
+        assertTrue(suscriptor.ofrecer(EVENTO));
+        assertFalse(suscriptor.ofrecer(EVENTO));
+
+        assertTrue(suscriptor.isCerrado());
+        assertEquals(List.of(suscriptor), cerrados);
+        // El hilo de envio encuentra la marca de fin aunque el buffer estuviera lleno.
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> suscriptor.enviar(Collections.emptyIterator()));
+    }
+
+    @Test
+    void bufferLlenoDebeDescartarYMantenerLaConexion() {
+        List<StreamSuscriptor> cerrados = new ArrayList<>();
+        StreamSuscriptor suscriptor = new StreamSuscriptor(
+            new SseEmitter(), properties(StreamProperties.Desborde.DESCARTAR), cerrados::add);
+
+        assertTrue(suscriptor.ofrecer(EVENTO));
+        assertTrue(suscriptor.ofrecer(EVENTO));
+        assertFalse(suscriptor.ofrecer(EVENTO));
+        assertFalse(suscriptor.ofrecer(EVENTO));
+
+        assertFalse(suscriptor.isCerrado());
+        assertTrue(cerrados.isEmpty());
+    }
+
+    @Test
+    void eventosEnVivoDebenEsperarALaRecuperacionSinDesbordar() throws Exception {
+        List<String> enviados = Collections.synchronizedList(new ArrayList<>());
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                enviados.add(builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+            }
+        };
+        StreamSuscriptor suscriptor = new StreamSuscriptor(
+            emitter, properties(StreamProperties.Desborde.DESCONECTAR), ignorado -> { });
+        suscriptor.diferirHastaRecuperar();
+
+        // Mas eventos que el buffer de 2: se retienen aparte sin cerrar la conexion.
+        for (int i = 0; i < 4; i++) {
+            assertTrue(suscriptor.ofrecer(new StreamEvento("upsert", "vivo-" + i, "{}")));
+        }
+        assertFalse(suscriptor.isCerrado());
+
+        Thread envio = Thread.ofVirtual().start(() ->
+            suscriptor.enviar(List.of(new StreamEvento("upsert", "recuperado", "{}")).iterator()));
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            while (enviados.size() < 5) {
+                Thread.sleep(10);
+            }
+        });
+        assertTrue(suscriptor.ofrecer(new StreamEvento("upsert", "vivo-4", "{}")));
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            while (enviados.size() < 6) {
+                Thread.sleep(10);
+            }
+        });
+        suscriptor.cerrar();
+        envio.join(2000);
+
+        List<String> ids = enviados.stream()
+            .map(evento -> evento.substring(evento.indexOf("id:") + 3, evento.indexOf('\n', evento.indexOf("id:"))))
+            .toList();
+        assertEquals(List.of("recuperado", "vivo-0", "vivo-1", "vivo-2", "vivo-3", "vivo-4"), ids);
+    }
+
+    private static StreamProperties properties(StreamProperties.Desborde desborde) {
+        return new StreamProperties(2, desborde, 4, 10, Duration.ofSeconds(15), Duration.ZERO);
+    }
+}